@@ -1,7 +1,9 @@
 import gui.MainFrame;
 
+import javax.swing.*;
+
 public class Main {
     public static void main(String[] args){
-        MainFrame mainFrame = new MainFrame();
+        SwingUtilities.invokeLater(MainFrame::new);
     }
 }
@@ -0,0 +1,10 @@
+package data;
+
+// Told about every change right after it is published, on the thread that
+// made it. The snapshot is the one the change produced; changes are
+// reported one at a time, in the order they were made.
+public interface DataListener<T> {
+    void added(T value, DataSnapshot snapshot);
+
+    void deleted(T value, DataSnapshot snapshot);
+}
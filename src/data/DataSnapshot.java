@@ -0,0 +1,36 @@
+package data;
+
+import model.Client;
+import model.Item;
+import model.Order;
+
+// One published version of the Clients, Items and Orders. Every change
+// publishes a new snapshot, so a reader that holds on to one keeps seeing
+// the same data however long it scans, without blocking the writers.
+public record DataSnapshot(
+        long version,
+        PersistentList<Client> clients,
+        PersistentList<Item> items,
+        PersistentList<Order> orders
+) {
+    static DataSnapshot empty() {
+        return new DataSnapshot(
+                0,
+                PersistentList.empty(),
+                PersistentList.empty(),
+                PersistentList.empty()
+        );
+    }
+
+    DataSnapshot withClients(PersistentList<Client> clients) {
+        return new DataSnapshot(version + 1, clients, items, orders);
+    }
+
+    DataSnapshot withItems(PersistentList<Item> items) {
+        return new DataSnapshot(version + 1, clients, items, orders);
+    }
+
+    DataSnapshot withOrders(PersistentList<Order> orders) {
+        return new DataSnapshot(version + 1, clients, items, orders);
+    }
+}
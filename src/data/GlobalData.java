@@ -1,44 +1,223 @@
 package data;
 
+import data.index.PrefixIndex;
+import data.index.RoaringBitmap;
+import data.index.TrigramIndex;
+import data.storage.BinaryOrdersFile;
+import data.storage.ChunkedRecordParser;
+import data.storage.CommitStats;
+import data.storage.Durability;
+import data.storage.FileTransaction;
+import data.storage.Journal;
+import data.storage.JournalCommit;
+import data.storage.JournalCompactor;
+import data.storage.JournalEntry;
+import data.storage.OrderItemRecord;
+import data.storage.OrderRecord;
+import data.storage.PersistenceMode;
+import data.storage.RecordReader;
+import data.storage.StorageFormat;
+import data.storage.StorageOptions;
+import data.storage.WriteBehindQueue;
 import model.*;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class GlobalData {
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final int MIN_ORDINALS_TO_COMPACT = 1024;
+
     private final String clientsFilePath;
     private final String itemsFilePath;
     private final String ordersFilePath;
     private final String orderItemsFilePath;
 
+    private final StorageOptions storageOptions;
+
     private File clientsFile;
     private File itemsFile;
     private File ordersFile;
     private File orderItemsFile;
-
-    private final List<Client> clients;
-    private final List<Item> items;
-    private final List<Order> orders;
+    private final BinaryOrdersFile binaryOrdersFile;
+
+    private final FileTransaction clientsFileTransaction;
+    private final FileTransaction itemsFileTransaction;
+    private final FileTransaction ordersFileTransaction;
+    private final FileTransaction binaryOrdersFileTransaction;
+
+    private final Durability durability;
+    private final Journal clientsJournal;
+    private final Journal itemsJournal;
+    private final Journal ordersJournal;
+
+    private final Object writeLock;
+    private final ReentrantReadWriteLock dataLock;
+    private final StampedLock changeStamp;
+    private JournalCompactor journalCompactor;
+    private WriteBehindQueue writeBehindQueue;
+
+    private volatile DataSnapshot snapshot;
+    private final List<DataListener<Client>> clientsListeners;
+    private final List<DataListener<Item>> itemsListeners;
+
+    private final Map<UUID, Client> clientsById;
+    private final PrefixIndex<Client> clientsSearchIndex;
+    private final Map<UUID, Item> itemsById;
+    private final Map<String, Item> itemsBySku;
+    private final TrigramIndex<Item> itemNamesIndex;
+    private final Map<UUID, Order> ordersById;
+    private final Map<UUID, Map<UUID, Order>> ordersByClientId;
+    private final Map<UUID, Map<UUID, Order>> ordersByItemId;
+    private final NavigableMap<Long, Map<UUID, Order>> ordersByOrderedAt;
+    private final NavigableMap<Long, Map<UUID, Order>> ordersByGrossTotal;
+    private final NavigableMap<Long, Map<UUID, Order>> ordersByNetTotal;
+
+    private final List<Order> ordersByOrdinal;
+    private final Map<UUID, Integer> orderOrdinals;
+    private final Map<UUID, RoaringBitmap> orderOrdinalsByClientId;
+    private final Map<String, RoaringBitmap> orderOrdinalsByCountry;
+    private final Map<String, RoaringBitmap> orderOrdinalsByDistrict;
+    private final Map<String, RoaringBitmap> orderOrdinalsByCity;
+    private int deletedOrderOrdinals;
 
     public GlobalData() {
+        this(StorageOptions.defaults());
+    }
+
+    public GlobalData(StorageOptions storageOptions) {
         this.clientsFilePath = "clients.txt";
         this.itemsFilePath = "items.txt";
         this.ordersFilePath = "orders.txt";
         this.orderItemsFilePath = "orderItems.txt";
 
+        this.storageOptions = storageOptions;
+
         this.prepareFiles();
 
-        this.clients = new ArrayList<>();
-        this.items = new ArrayList<>();
-        this.orders = new ArrayList<>();
+        this.binaryOrdersFile = new BinaryOrdersFile(new File("orders.dat"));
+
+        this.clientsFileTransaction = new FileTransaction(clientsFile);
+        this.itemsFileTransaction = new FileTransaction(itemsFile);
+        this.ordersFileTransaction = new FileTransaction(
+                new File("orders.commit"),
+                List.of(ordersFile, orderItemsFile)
+        );
+        this.binaryOrdersFileTransaction = new FileTransaction(binaryOrdersFile.getFile());
+
+        this.recoverOrdersFiles();
+
+        this.durability = new Durability(
+                storageOptions.syncMode(),
+                storageOptions.syncIntervalMillis()
+        );
+
+        this.clientsJournal = new Journal(
+                new File("clients.journal"),
+                durability,
+                storageOptions.groupCommitWindowMillis()
+        );
+        this.itemsJournal = new Journal(
+                new File("items.journal"),
+                durability,
+                storageOptions.groupCommitWindowMillis()
+        );
+        this.ordersJournal = new Journal(
+                new File("orders.journal"),
+                durability,
+                storageOptions.groupCommitWindowMillis()
+        );
+
+        this.writeLock = new Object();
+        this.dataLock = new ReentrantReadWriteLock();
+        this.changeStamp = new StampedLock();
+
+        this.snapshot = DataSnapshot.empty();
+        this.clientsListeners = new CopyOnWriteArrayList<>();
+        this.itemsListeners = new CopyOnWriteArrayList<>();
+
+        this.clientsById = new HashMap<>();
+        this.clientsSearchIndex = new PrefixIndex<>(Client::id, this::getClientSearchFields);
+        this.itemsById = new HashMap<>();
+        this.itemsBySku = new HashMap<>();
+        this.itemNamesIndex = new TrigramIndex<>(Item::id, Item::name);
+        this.ordersById = new HashMap<>();
+        this.ordersByClientId = new HashMap<>();
+        this.ordersByItemId = new HashMap<>();
+        this.ordersByOrderedAt = new TreeMap<>();
+        this.ordersByGrossTotal = new TreeMap<>();
+        this.ordersByNetTotal = new TreeMap<>();
+
+        this.ordersByOrdinal = new ArrayList<>();
+        this.orderOrdinals = new HashMap<>();
+        this.orderOrdinalsByClientId = new HashMap<>();
+        this.orderOrdinalsByCountry = new HashMap<>();
+        this.orderOrdinalsByDistrict = new HashMap<>();
+        this.orderOrdinalsByCity = new HashMap<>();
+
+        this.fetchAllData();
+
+        this.startWriteBehindQueue();
+        this.startJournalCompactor();
+    }
+
+    private void startWriteBehindQueue() {
+        if(!storageOptions.writeBehind()) {
+            return;
+        }
+
+        writeBehindQueue = new WriteBehindQueue();
+    }
+
+    // Blocks until every change made so far has been written to the files.
+    public void flush() {
+        if(writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
+    public void close() {
+        if(journalCompactor != null) {
+            journalCompactor.stop();
+        }
+
+        if(writeBehindQueue != null) {
+            writeBehindQueue.close();
+        }
+
+        try {
+            clientsJournal.close();
+            itemsJournal.close();
+            ordersJournal.close();
+        } catch (IOException e) {
+            System.err.println(e.toString());
+        }
+
+        durability.close();
 
-        this.fetchAllClientsFromFile();
-        this.fetchAllItemsFromFile();
-        this.fetchAllOrdersFromFile();
+        if(isJournalMode()) {
+            System.err.println("Journal group commit: " + getJournalCommitStats());
+        }
+    }
+
+    public CommitStats getJournalCommitStats() {
+        return clientsJournal.getCommitStats()
+                .add(itemsJournal.getCommitStats())
+                .add(ordersJournal.getCommitStats());
     }
 
     private void prepareFiles() {
@@ -67,385 +246,1623 @@ public class GlobalData {
         }
     }
 
-    private void createFile(File file) {
+    private void recoverOrdersFiles() {
         try {
-            boolean status = file.createNewFile();
+            ordersFileTransaction.recover();
         } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    private void saveAllClientsToFile() {
+    private void createFile(File file) {
         try {
-            PrintWriter printWriter = new PrintWriter(new FileWriter(clientsFile, false));
-
-            for (Client client : this.clients) {
-                printWriter.println(client.getFileRecord());
-            }
-
-            printWriter.close();
-        } catch (Exception e) {
+            boolean status = file.createNewFile();
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    private void fetchAllClientsFromFile() {
-        Scanner scanner;
+    // Clients, Items and the raw order records do not depend on each other,
+    // so their files are read at the same time. Only joining the Orders with
+    // their Clients, Items and order items waits for all of them.
+    private void fetchAllData() {
+        boolean fetchOrdersFromTextFiles = !binaryOrdersFile.exists();
+
+        CompletableFuture<Void> clientsFetched = CompletableFuture.runAsync(() -> {
+            fetchAllClientsFromFile();
+            replayClientsJournal();
+        });
+        CompletableFuture<Void> itemsFetched = CompletableFuture.runAsync(() -> {
+            fetchAllItemsFromFile();
+            replayItemsJournal();
+        });
+        CompletableFuture<List<List<OrderRecord>>> orderRecordsRead = fetchOrdersFromTextFiles
+                ? CompletableFuture.supplyAsync(this::readOrderRecords)
+                : CompletableFuture.completedFuture(List.of());
+        CompletableFuture<List<List<OrderItemRecord>>> orderItemRecordsRead = fetchOrdersFromTextFiles
+                ? CompletableFuture.supplyAsync(this::readOrderItemRecords)
+                : CompletableFuture.completedFuture(List.of());
+
+        clientsFetched.join();
+        itemsFetched.join();
+
+        if(fetchOrdersFromTextFiles) {
+            joinOrders(orderRecordsRead.join(), orderItemRecordsRead.join());
+
+            // The TXT files stay the import path of the binary format:
+            // without an orders.dat yet they are loaded once and converted.
+            if(isBinaryOrdersFormat()) {
+                saveAllOrdersToFiles();
+            }
+        } else {
+            fetchAllOrdersFromBinaryFile();
 
-        try {
-            scanner = new Scanner(clientsFile);
-            clients.clear();
-
-            while(scanner.hasNext()) {
-                String[] sections = scanner.nextLine().split(";", -1);
-
-                clients.add(new Client(
-                        UUID.fromString(sections[0]),
-                        sections[1],
-                        sections[2],
-                        sections[3],
-                        sections[4],
-                        new Address(
-                                sections[5],
-                                sections[6],
-                                sections[7],
-                                sections[8],
-                                sections[9],
-                                sections[10],
-                                sections[11]
-                        ),
-                        new Address(
-                                sections[12],
-                                sections[13],
-                                sections[14],
-                                sections[15],
-                                sections[16],
-                                sections[17],
-                                sections[18]
-                        )
-                ));
+            if(!isBinaryOrdersFormat()) {
+                foldBinaryOrdersFile();
             }
         }
-        catch (FileNotFoundException e) {
+
+        replayOrdersJournal();
+    }
+
+    // An orders.dat left behind by a binary format run is newer than the
+    // TXT files, so it is loaded and folded back into them. The binary file
+    // is deleted only once the TXT files have been committed.
+    private void foldBinaryOrdersFile() {
+        try {
+            commitOrdersFiles(getOrders());
+
+            Files.delete(binaryOrdersFile.getFile().toPath());
+            syncDirectory(binaryOrdersFile.getFile());
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    public List<Client> getClients() {
-        return new ArrayList<>(clients);
+    private boolean isBinaryOrdersFormat() {
+        return storageOptions.ordersFormat() == StorageFormat.BINARY;
     }
 
-    public Client getClientById(UUID id) {
-        for(Client client : clients) {
-            if(client.id().equals(id)) {
-                return client;
-            }
+    private boolean isJournalMode() {
+        return storageOptions.persistenceMode() == PersistenceMode.JOURNAL;
+    }
+
+    // Records are queued while the caller holds the write lock, so the
+    // journal keeps the order of the changes in memory. The write itself is
+    // awaited after the lock is released, which lets concurrent mutations
+    // share one group commit.
+    private JournalCommit appendToJournal(Journal journal, List<String> records) {
+        if(writeBehindQueue != null) {
+            writeBehindQueue.append(journal, records);
+
+            return null;
         }
 
-        return null;
+        return new JournalCommit(journal, journal.enqueue(records));
     }
 
-    public void addClient(Client client) {
-        try {
-            clients.add(client);
+    private void awaitJournalCommit(JournalCommit commit) {
+        if(commit == null) {
+            return;
+        }
 
-            saveAllClientsToFile();
-        } catch (Exception e) {
+        try {
+            commit.await();
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    public void deleteClient(UUID id) {
-        try {
-            clients.removeIf(client -> client.id().equals(id));
+    // Journals left behind by a journal mode run are folded into the
+    // snapshot files, so switching back to snapshot mode loses nothing.
+    // The snapshot is written synchronously before the journal is cleared,
+    // and a snapshot that failed to save keeps the journal.
+    private void foldJournal(Journal journal, SnapshotWriter saveSnapshot) {
+        if(isJournalMode()) {
+            return;
+        }
 
-            saveAllClientsToFile();
-        } catch (Exception e) {
+        try {
+            saveSnapshot.write();
+            journal.clear();
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    public boolean checkIfClientIsUsed(UUID id) {
-        for(Order order : orders) {
-            if(order.client().id().equals(id)) {
-                return true;
-            }
+    private void startJournalCompactor() {
+        if(!isJournalMode()) {
+            return;
         }
 
-        return false;
+        journalCompactor = new JournalCompactor(this::compactJournalsIfNeeded);
+        journalCompactor.start(storageOptions.compactionIntervalMillis());
     }
 
-    private void saveAllItemsToFile() {
-        try {
-            PrintWriter printWriter = new PrintWriter(new FileWriter(itemsFile, false));
+    // Every delete leaves two dead records behind, the tombstone itself
+    // and the record it removes, wherever that one is stored.
+    private boolean needsCompaction(Journal journal, int liveRecords) {
+        if(journal.size() >= storageOptions.compactionJournalBytes()) {
+            return true;
+        }
 
-            for (Item item : this.items) {
-                printWriter.println(item.getFileRecord());
-            }
+        long deadRecords = 2 * journal.getTombstoneCount();
 
-            printWriter.close();
-        } catch (Exception e) {
+        if(deadRecords == 0) {
+            return false;
+        }
+
+        return (double) deadRecords / (liveRecords + deadRecords) >= storageOptions.compactionGarbageRatio();
+    }
+
+    private void compactJournalsIfNeeded() {
+        boolean clientsNeedCompaction;
+        boolean itemsNeedCompaction;
+        boolean ordersNeedCompaction;
+
+        synchronized (writeLock) {
+            clientsNeedCompaction = needsCompaction(clientsJournal, snapshot.clients().size());
+            itemsNeedCompaction = needsCompaction(itemsJournal, snapshot.items().size());
+            ordersNeedCompaction = needsCompaction(ordersJournal, snapshot.orders().size());
+        }
+
+        if(clientsNeedCompaction) {
+            compactClientsJournal();
+        }
+
+        if(itemsNeedCompaction) {
+            compactItemsJournal();
+        }
+
+        if(ordersNeedCompaction) {
+            compactOrdersJournal();
+        }
+    }
+
+    // The snapshot is written from a copy taken together with the journal
+    // position, so mutations keep arriving while it is being written and
+    // swapped in. Replaying a journal over a snapshot that already contains
+    // its records gives the same state, so a crash before the journal is
+    // truncated is harmless.
+    private void compactClientsJournal() {
+        List<Client> snapshot;
+        long journalPosition;
+
+        synchronized (writeLock) {
+            snapshot = getClients();
+            journalPosition = clientsJournal.size();
+        }
+
+        try {
+            commitClientsFile(snapshot);
+            clientsJournal.truncateBefore(journalPosition);
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    private void fetchAllItemsFromFile() {
-        Scanner scanner;
+    private void compactItemsJournal() {
+        List<Item> snapshot;
+        long journalPosition;
+
+        synchronized (writeLock) {
+            snapshot = getItems();
+            journalPosition = itemsJournal.size();
+        }
 
         try {
-            scanner = new Scanner(itemsFile);
-            items.clear();
-
-            while(scanner.hasNext()) {
-                String[] sections = scanner.nextLine().split(";", -1);
-
-                items.add(new Item(
-                        UUID.fromString(sections[0]),
-                        sections[1],
-                        sections[2],
-                        sections[3],
-                        new BigDecimal(sections[4]),
-                        new BigDecimal(sections[5]),
-                        sections[6],
-                        sections[7]
-                ));
-            }
+            commitItemsFile(snapshot);
+            itemsJournal.truncateBefore(journalPosition);
+        } catch (IOException e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    private void compactOrdersJournal() {
+        List<Order> snapshot;
+        long journalPosition;
+
+        synchronized (writeLock) {
+            snapshot = getOrders();
+            journalPosition = ordersJournal.size();
         }
-        catch (FileNotFoundException e) {
+
+        try {
+            commitOrdersFiles(snapshot);
+            ordersJournal.truncateBefore(journalPosition);
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
 
-    public List<Item> getItems() {
-        return new ArrayList<>(items);
+    private void syncDirectory(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+
+        durability.afterWrite(directory, Durability.directory(directory));
     }
 
-    public List<Item> getItemsFilterName(String name) {
-        List<Item> filteredItems = new ArrayList<>();
+    private Client parseClient(String[] sections) {
+        return new Client(
+                UUID.fromString(sections[0]),
+                sections[1],
+                sections[2],
+                sections[3],
+                sections[4],
+                new Address(
+                        sections[5],
+                        sections[6],
+                        sections[7],
+                        sections[8],
+                        sections[9],
+                        sections[10],
+                        sections[11]
+                ),
+                new Address(
+                        sections[12],
+                        sections[13],
+                        sections[14],
+                        sections[15],
+                        sections[16],
+                        sections[17],
+                        sections[18]
+                )
+        );
+    }
 
-        for (Item item : items) {
-            if(item.name().contains(name)) {
-                filteredItems.add(item);
-            }
+    private void writeClientsFile(File file, List<Client> clients) throws IOException {
+        PrintWriter printWriter = new PrintWriter(new FileWriter(file, false));
+
+        for (Client client : clients) {
+            printWriter.println(client.getFileRecord());
         }
 
-        return filteredItems;
+        printWriter.close();
+
+        if(printWriter.checkError()) {
+            throw new IOException("Error while writing " + file);
+        }
     }
 
-    public Item getItemById(UUID id) {
-        for(Item item : items) {
-            if(item.id().equals(id)) {
-                return item;
-            }
+    private void saveAllClientsToFile() {
+        if(writeBehindQueue != null) {
+            writeBehindQueue.submitRewrite(clientsFile, this::writeAllClientsToFile);
+
+            return;
         }
 
-        return null;
+        writeAllClientsToFile();
     }
 
-    public void addItem(Item item) {
-        try {
-            items.add(item);
+    private void writeAllClientsToFile() {
+        List<Client> snapshot = getClients();
 
-            saveAllItemsToFile();
+        try {
+            commitClientsFile(snapshot);
         } catch (Exception e) {
             System.err.println(e.toString());
         }
+    }
+
+    // The live file is only ever replaced by a complete, forced copy, so a
+    // crash or an error while writing leaves the previous version in place.
+    private void commitClientsFile(List<Client> snapshot) throws IOException {
+        synchronized (clientsFileTransaction) {
+            writeClientsFile(clientsFileTransaction.getTempFile(clientsFile), snapshot);
+            clientsFileTransaction.commit();
+        }
 
+        syncDirectory(clientsFile);
     }
 
-    public void deleteItem(UUID id) {
+    private void fetchAllClientsFromFile() {
+        List<Client> loadedClients = new ArrayList<>();
+
         try {
-            items.removeIf(item -> item.id().equals(id));
+            clearClientIndexes();
 
-            saveAllItemsToFile();
-        } catch (Exception e) {
+            RecordReader.read(clientsFile, sections -> {
+                Client client = parseClient(sections);
+
+                loadedClients.add(client);
+                indexClient(client);
+            });
+        }
+        catch (IOException | ParseException e) {
             System.err.println(e.toString());
         }
+
+        mutate(() -> snapshot = snapshot.withClients(PersistentList.of(loadedClients)));
     }
 
-    public boolean checkIfItemIsUsed(UUID id) {
-        for(Order order : orders) {
-            for (OrderItem orderItem : order.orderItems()) {
-                if (orderItem.item().id().equals(id)) {
-                    return true;
+    private void replayClientsJournal() {
+        try {
+            List<JournalEntry> entries = clientsJournal.readEntries();
+
+            if(entries.isEmpty()) {
+                return;
+            }
+
+            Map<UUID, Client> replayedClients = new LinkedHashMap<>();
+
+            for (Client client : snapshot.clients()) {
+                replayedClients.put(client.id(), client);
+            }
+
+            for (JournalEntry entry : entries) {
+                try {
+                    switch (entry.operation()) {
+                        case Journal.ADD:
+                            Client client = parseClient(entry.sections());
+
+                            replayedClients.put(client.id(), client);
+
+                            break;
+                        case Journal.DELETE:
+                            replayedClients.remove(UUID.fromString(entry.sections()[0]));
+
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println(e.toString());
                 }
             }
+
+            clearClientIndexes();
+
+            for (Client client : replayedClients.values()) {
+                indexClient(client);
+            }
+
+            mutate(() -> snapshot = snapshot.withClients(PersistentList.of(replayedClients.values())));
+
+            foldJournal(clientsJournal, () -> commitClientsFile(getClients()));
+        } catch (IOException e) {
+            System.err.println(e.toString());
         }
+    }
+
+    private JournalCommit saveClient(Client client) {
+        if(isJournalMode()) {
+            return appendToJournal(clientsJournal, List.of(
+                    Journal.addRecord(client.getFileRecord())
+            ));
+        }
+
+        saveAllClientsToFile();
 
-        return false;
+        return null;
     }
 
-    public boolean checkIfItemSkuUnique(String sku) {
-        for(Item item : items) {
-            if (item.sku().equals(sku)) {
-                return false;
-            }
+    private JournalCommit saveClientDeletion(UUID id) {
+        if(isJournalMode()) {
+            return appendToJournal(clientsJournal, List.of(
+                    Journal.deleteRecord(id)
+            ));
         }
 
-        return true;
+        saveAllClientsToFile();
+
+        return null;
     }
 
-    private void saveAllOrdersToFiles() {
+    // Pins the current version of all data. It never changes afterwards,
+    // however long it is held, and holding it blocks no one.
+    public DataSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public List<Client> getClients() {
+        return snapshot.clients();
+    }
+
+    public void addClientsListener(DataListener<Client> listener) {
+        clientsListeners.add(listener);
+    }
+
+    public Client getClientById(UUID id) {
+        return read(() -> clientsById.get(id));
+    }
+
+    public void addClient(Client client) {
         try {
-            PrintWriter ordersWriter = new PrintWriter(
-                    new FileWriter(ordersFile, false)
-            );
-            PrintWriter orderItemsWriter = new PrintWriter(
-                    new FileWriter(orderItemsFile, false)
-            );
+            JournalCommit commit;
 
-            for (Order order : orders) {
-                ordersWriter.println(order.getFileRecord());
+            synchronized (writeLock) {
+                mutate(() -> {
+                    snapshot = snapshot.withClients(snapshot.clients().plus(client));
+                    indexClient(client);
+                });
 
-                for (OrderItem orderItem : order.orderItems()) {
-                    orderItemsWriter.println(
-                            orderItem.getFileRecord(order.id())
-                    );
+                for (DataListener<Client> listener : clientsListeners) {
+                    listener.added(client, snapshot);
                 }
+
+                commit = saveClient(client);
             }
 
-            ordersWriter.close();
-            orderItemsWriter.close();
+            awaitJournalCommit(commit);
         } catch (Exception e) {
             System.err.println(e.toString());
         }
     }
 
-    private void fetchAllOrdersFromFile() {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'");
-
+    public void deleteClient(UUID id) {
         try {
-            Scanner orderScanner = new Scanner(ordersFile);
-            orders.clear();
-
-            while(orderScanner.hasNext()) {
-                String[] orderSections = orderScanner.nextLine().split(";", -1);
-
-                List<OrderItem> orderItems = new ArrayList<>();
-                Client client = getClientById(UUID.fromString(orderSections[4]));
-
-                orders.add(new Order(
-                        UUID.fromString(orderSections[0]),
-                        dateFormat.parse(orderSections[1]),
-                        orderItems,
-                        new BigDecimal(orderSections[2]),
-                        new BigDecimal(orderSections[3]),
-                        client,
-                        new Address(
-                                orderSections[5],
-                                orderSections[6],
-                                orderSections[7],
-                                orderSections[8],
-                                orderSections[9],
-                                orderSections[10],
-                                orderSections[11]
-                        )
-                ));
-            }
-
-            Scanner orderItemScanner = new Scanner(orderItemsFile);
+            JournalCommit commit;
 
-            while(orderItemScanner.hasNext()) {
-                String[] orderItemSections = orderItemScanner.nextLine().split(";", -1);
+            synchronized (writeLock) {
+                Client client = clientsById.get(id);
 
-                Order order = getOrderById(UUID.fromString(orderItemSections[1]));
+                if(client != null) {
+                    mutate(() -> {
+                        snapshot = snapshot.withClients(snapshot.clients().minus(client));
+                        unindexClient(client);
+                    });
 
-                if(order == null) {
-                    continue;
+                    for (DataListener<Client> listener : clientsListeners) {
+                        listener.deleted(client, snapshot);
+                    }
                 }
 
-                Item item = getItemById(UUID.fromString(orderItemSections[2]));
-
-                order.addOrderItem(new OrderItem(
-                        UUID.fromString(orderItemSections[0]),
-                        item,
-                        Integer.parseInt(orderItemSections[3]),
-                        Integer.parseInt(orderItemSections[4]),
-                        new BigDecimal(orderItemSections[5]),
-                        new BigDecimal(orderItemSections[6])
-                ));
+                commit = saveClientDeletion(id);
             }
-        }
-        catch (FileNotFoundException | ParseException e) {
+
+            awaitJournalCommit(commit);
+        } catch (Exception e) {
             System.err.println(e.toString());
         }
     }
 
-    public List<Order> getOrders() {
-        return new ArrayList<>(orders);
+    public boolean checkIfClientIsUsed(UUID id) {
+        return read(() -> ordersByClientId.containsKey(id));
     }
 
-    public List<Order> getOrdersFilterOrderedAtRange(Date from, Date to) {
-        List<Order> filteredOrders = new ArrayList<>();
+    // Every word of the query has to start a word of the Client's names, TIN
+    // or addresses, case-insensitive.
+    public List<Client> searchClients(String query) {
+        return searchClients(query, Integer.MAX_VALUE);
+    }
 
-        for (Order order : orders) {
-            Date orderedAt = order.orderedAt();
+    public List<Client> searchClients(String query, int limit) {
+        return readLocked(() -> clientsSearchIndex.search(query, limit));
+    }
 
-            if(
-                    (orderedAt.after(from) || orderedAt.equals(from)) &&
-                    (orderedAt.before(to) || orderedAt.equals(to))
-            ) {
-                filteredOrders.add(order);
-            }
+    private List<String> getClientSearchFields(Client client) {
+        List<String> fields = new ArrayList<>(Arrays.asList(
+                client.firstName(),
+                client.lastName(),
+                client.companyName(),
+                client.tin()
+        ));
+
+        for (Address address : List.of(client.address(), client.deliveryAddress())) {
+            fields.add(address.street());
+            fields.add(address.city());
+            fields.add(address.zipCode());
+            fields.add(address.district());
+            fields.add(address.country());
         }
 
-        return filteredOrders;
+        return fields;
     }
 
-    public List<Order> getOrdersFilterGrossTotalRang(BigDecimal from, BigDecimal to) {
-        List<Order> filteredOrders = new ArrayList<>();
+    private void indexClient(Client client) {
+        clientsById.put(client.id(), client);
+        clientsSearchIndex.add(client);
+    }
 
-        for (Order order : orders) {
-            if(
-                    order.grossTotal().compareTo(from) >= 0 &&
-                    order.grossTotal().compareTo(to) <= 0
-            ) {
-                filteredOrders.add(order);
-            }
+    private void unindexClient(Client client) {
+        clientsById.remove(client.id());
+        clientsSearchIndex.remove(client);
+    }
+
+    private void clearClientIndexes() {
+        clientsById.clear();
+        clientsSearchIndex.clear();
+    }
+
+    private Item parseItem(String[] sections) {
+        return new Item(
+                UUID.fromString(sections[0]),
+                sections[1],
+                sections[2],
+                sections[3],
+                new BigDecimal(sections[4]),
+                new BigDecimal(sections[5]),
+                sections[6],
+                sections[7]
+        );
+    }
+
+    private void writeItemsFile(File file, List<Item> items) throws IOException {
+        PrintWriter printWriter = new PrintWriter(new FileWriter(file, false));
+
+        for (Item item : items) {
+            printWriter.println(item.getFileRecord());
         }
 
-        return filteredOrders;
+        printWriter.close();
+
+        if(printWriter.checkError()) {
+            throw new IOException("Error while writing " + file);
+        }
     }
 
-    public List<Order> getOrdersFilterClient(Client client) {
-        List<Order> filteredOrders = new ArrayList<>();
+    private void saveAllItemsToFile() {
+        if(writeBehindQueue != null) {
+            writeBehindQueue.submitRewrite(itemsFile, this::writeAllItemsToFile);
 
-        for (Order order : orders) {
-            if(order.client().equals(client)) {
-                filteredOrders.add(order);
-            }
+            return;
         }
 
-        return filteredOrders;
+        writeAllItemsToFile();
     }
 
-    public Order getOrderById(UUID id) {
-        for(Order order : orders) {
-            if(order.id().equals(id)) {
-                return order;
-            }
+    private void writeAllItemsToFile() {
+        List<Item> snapshot = getItems();
+
+        try {
+            commitItemsFile(snapshot);
+        } catch (Exception e) {
+            System.err.println(e.toString());
         }
+    }
 
-        return null;
+    private void commitItemsFile(List<Item> snapshot) throws IOException {
+        synchronized (itemsFileTransaction) {
+            writeItemsFile(itemsFileTransaction.getTempFile(itemsFile), snapshot);
+            itemsFileTransaction.commit();
+        }
+
+        syncDirectory(itemsFile);
     }
 
-    public void addOrder(Order order) {
+    private void fetchAllItemsFromFile() {
+        List<Item> loadedItems = new ArrayList<>();
+
         try {
-            orders.add(order);
+            clearItemIndexes();
 
-            saveAllOrdersToFiles();
-        } catch (Exception e) {
+            RecordReader.read(itemsFile, sections -> {
+                Item item = parseItem(sections);
+
+                loadedItems.add(item);
+                indexItem(item);
+            });
+        }
+        catch (IOException | ParseException e) {
             System.err.println(e.toString());
         }
+
+        mutate(() -> snapshot = snapshot.withItems(PersistentList.of(loadedItems)));
     }
 
-    public void deleteOrder(UUID id) {
+    private void replayItemsJournal() {
         try {
-            orders.removeIf(order -> order.id().equals(id));
+            List<JournalEntry> entries = itemsJournal.readEntries();
 
-            saveAllOrdersToFiles();
-        } catch (Exception e) {
+            if(entries.isEmpty()) {
+                return;
+            }
+
+            Map<UUID, Item> replayedItems = new LinkedHashMap<>();
+
+            for (Item item : snapshot.items()) {
+                replayedItems.put(item.id(), item);
+            }
+
+            for (JournalEntry entry : entries) {
+                try {
+                    switch (entry.operation()) {
+                        case Journal.ADD:
+                            Item item = parseItem(entry.sections());
+
+                            replayedItems.put(item.id(), item);
+
+                            break;
+                        case Journal.DELETE:
+                            replayedItems.remove(UUID.fromString(entry.sections()[0]));
+
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println(e.toString());
+                }
+            }
+
+            clearItemIndexes();
+
+            for (Item item : replayedItems.values()) {
+                indexItem(item);
+            }
+
+            mutate(() -> snapshot = snapshot.withItems(PersistentList.of(replayedItems.values())));
+
+            foldJournal(itemsJournal, () -> commitItemsFile(getItems()));
+        } catch (IOException e) {
             System.err.println(e.toString());
         }
     }
+
+    private JournalCommit saveItem(Item item) {
+        if(isJournalMode()) {
+            return appendToJournal(itemsJournal, List.of(
+                    Journal.addRecord(item.getFileRecord())
+            ));
+        }
+
+        saveAllItemsToFile();
+
+        return null;
+    }
+
+    private JournalCommit saveItemDeletion(UUID id) {
+        if(isJournalMode()) {
+            return appendToJournal(itemsJournal, List.of(
+                    Journal.deleteRecord(id)
+            ));
+        }
+
+        saveAllItemsToFile();
+
+        return null;
+    }
+
+    public List<Item> getItems() {
+        return snapshot.items();
+    }
+
+    // Case-insensitive.
+    public List<Item> getItemsFilterName(String name) {
+        return readLocked(() -> itemNamesIndex.search(name));
+    }
+
+    public void addItemsListener(DataListener<Item> listener) {
+        itemsListeners.add(listener);
+    }
+
+    public Item getItemById(UUID id) {
+        return read(() -> itemsById.get(id));
+    }
+
+    public void addItem(Item item) {
+        try {
+            JournalCommit commit;
+
+            synchronized (writeLock) {
+                mutate(() -> {
+                    snapshot = snapshot.withItems(snapshot.items().plus(item));
+                    indexItem(item);
+                });
+
+                for (DataListener<Item> listener : itemsListeners) {
+                    listener.added(item, snapshot);
+                }
+
+                commit = saveItem(item);
+            }
+
+            awaitJournalCommit(commit);
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+
+    }
+
+    public void deleteItem(UUID id) {
+        try {
+            JournalCommit commit;
+
+            synchronized (writeLock) {
+                Item item = itemsById.get(id);
+
+                if(item != null) {
+                    mutate(() -> {
+                        snapshot = snapshot.withItems(snapshot.items().minus(item));
+                        unindexItem(item);
+                    });
+
+                    for (DataListener<Item> listener : itemsListeners) {
+                        listener.deleted(item, snapshot);
+                    }
+                }
+
+                commit = saveItemDeletion(id);
+            }
+
+            awaitJournalCommit(commit);
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    public boolean checkIfItemIsUsed(UUID id) {
+        return read(() -> ordersByItemId.containsKey(id));
+    }
+
+    public boolean checkIfItemSkuUnique(String sku) {
+        return read(() -> !itemsBySku.containsKey(sku));
+    }
+
+    public Item getItemBySku(String sku) {
+        return read(() -> itemsBySku.get(sku));
+    }
+
+    private void indexItem(Item item) {
+        itemsById.put(item.id(), item);
+        itemsBySku.put(item.sku(), item);
+        itemNamesIndex.add(item);
+    }
+
+    private void unindexItem(Item item) {
+        itemsById.remove(item.id());
+        itemsBySku.remove(item.sku(), item);
+        itemNamesIndex.remove(item);
+    }
+
+    private void clearItemIndexes() {
+        itemsById.clear();
+        itemsBySku.clear();
+        itemNamesIndex.clear();
+    }
+
+    private Order toOrder(OrderRecord record, List<OrderItem> orderItems) {
+        return new Order(
+                record.id(),
+                record.orderedAt(),
+                orderItems,
+                record.netTotal(),
+                record.grossTotal(),
+                getClientById(record.clientId()),
+                record.deliveryAddress()
+        );
+    }
+
+    private OrderItem toOrderItem(OrderItemRecord record) {
+        return new OrderItem(
+                record.id(),
+                getItemById(record.itemId()),
+                record.count(),
+                record.discount(),
+                record.netSum(),
+                record.grossSum()
+        );
+    }
+
+    private Order parseOrder(String[] sections, DateFormat dateFormat) throws ParseException {
+        return toOrder(OrderRecord.parse(sections, dateFormat), new ArrayList<>());
+    }
+
+    private OrderItem parseOrderItem(String[] sections) {
+        return toOrderItem(OrderItemRecord.parse(sections));
+    }
+
+    private void writeOrdersFiles(
+            File ordersFile,
+            File orderItemsFile,
+            List<Order> orders
+    ) throws IOException {
+        PrintWriter ordersWriter = new PrintWriter(
+                new FileWriter(ordersFile, false)
+        );
+        PrintWriter orderItemsWriter = new PrintWriter(
+                new FileWriter(orderItemsFile, false)
+        );
+
+        for (Order order : orders) {
+            ordersWriter.println(order.getFileRecord());
+
+            for (OrderItem orderItem : order.orderItems()) {
+                orderItemsWriter.println(
+                        orderItem.getFileRecord(order.id())
+                );
+            }
+        }
+
+        ordersWriter.close();
+        orderItemsWriter.close();
+
+        if(ordersWriter.checkError() || orderItemsWriter.checkError()) {
+            throw new IOException("Error while writing " + ordersFile + " and " + orderItemsFile);
+        }
+    }
+
+    private void saveAllOrdersToFiles() {
+        if(writeBehindQueue != null) {
+            writeBehindQueue.submitRewrite(ordersFile, this::writeAllOrdersToFiles);
+
+            return;
+        }
+
+        writeAllOrdersToFiles();
+    }
+
+    private void writeAllOrdersToFiles() {
+        List<Order> snapshot = getOrders();
+
+        try {
+            commitOrdersFiles(snapshot);
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    // orders.txt and orderItems.txt are committed as one pair, so an Order
+    // is never saved without its order items or the other way round.
+    private void commitOrdersFiles(List<Order> snapshot) throws IOException {
+        if(isBinaryOrdersFormat()) {
+            File binaryFile = binaryOrdersFile.getFile();
+
+            synchronized (binaryOrdersFileTransaction) {
+                BinaryOrdersFile.write(binaryOrdersFileTransaction.getTempFile(binaryFile), snapshot);
+                binaryOrdersFileTransaction.commit();
+            }
+
+            syncDirectory(binaryFile);
+
+            return;
+        }
+
+        synchronized (ordersFileTransaction) {
+            writeOrdersFiles(
+                    ordersFileTransaction.getTempFile(ordersFile),
+                    ordersFileTransaction.getTempFile(orderItemsFile),
+                    snapshot
+            );
+            ordersFileTransaction.commit();
+        }
+
+        syncDirectory(ordersFile);
+    }
+
+    public void exportOrdersToTextFiles(File ordersFile, File orderItemsFile) throws IOException {
+        writeOrdersFiles(ordersFile, orderItemsFile, getOrders());
+    }
+
+    private void fetchAllOrdersFromBinaryFile() {
+        try {
+            List<Order> loadedOrders = binaryOrdersFile.read(
+                    this::getClientById,
+                    this::getItemById
+            );
+
+            clearOrderIndexes();
+
+            for (Order order : loadedOrders) {
+                indexOrder(order);
+            }
+
+            mutate(() -> snapshot = snapshot.withOrders(PersistentList.of(loadedOrders)));
+        } catch (IOException e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    private List<List<OrderRecord>> readOrderRecords() {
+        try {
+            return new ChunkedRecordParser<OrderRecord>(ordersFile, () -> {
+                DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'");
+
+                return sections -> OrderRecord.parse(sections, dateFormat);
+            }).parse();
+        }
+        catch (IOException e) {
+            System.err.println(e.toString());
+        }
+
+        return List.of();
+    }
+
+    private List<List<OrderItemRecord>> readOrderItemRecords() {
+        try {
+            return new ChunkedRecordParser<OrderItemRecord>(
+                    orderItemsFile,
+                    () -> OrderItemRecord::parse
+            ).parse();
+        }
+        catch (IOException e) {
+            System.err.println(e.toString());
+        }
+
+        return List.of();
+    }
+
+    // Every chunk was parsed into its own list; merging them in file order
+    // keeps the Orders and their order items in the order they were saved.
+    // The remaining indexes need the order items, so they are built last.
+    private void joinOrders(
+            List<List<OrderRecord>> orderRecordChunks,
+            List<List<OrderItemRecord>> orderItemRecordChunks
+    ) {
+        List<Order> joinedOrders = new ArrayList<>();
+
+        clearOrderIndexes();
+
+        for (List<OrderRecord> chunk : orderRecordChunks) {
+            for (OrderRecord record : chunk) {
+                Order order = toOrder(record, new ArrayList<>());
+
+                joinedOrders.add(order);
+                ordersById.put(order.id(), order);
+            }
+        }
+
+        for (List<OrderItemRecord> chunk : orderItemRecordChunks) {
+            for (OrderItemRecord record : chunk) {
+                Order order = getOrderById(record.orderId());
+
+                if(order == null) {
+                    continue;
+                }
+
+                order.addOrderItem(toOrderItem(record));
+            }
+        }
+
+        for (Order order : joinedOrders) {
+            indexOrder(order);
+        }
+
+        // Published only now, so no reader sees an Order without its order
+        // items.
+        mutate(() -> snapshot = snapshot.withOrders(PersistentList.of(joinedOrders)));
+    }
+
+    // An order and its order items are journaled as one group closed by a
+    // commit record; a group without its commit record is discarded.
+    private void replayOrdersJournal() {
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'");
+
+        try {
+            List<JournalEntry> entries = ordersJournal.readEntries();
+
+            if(entries.isEmpty()) {
+                return;
+            }
+
+            Map<UUID, Order> replayedOrders = new LinkedHashMap<>();
+
+            for (Order order : snapshot.orders()) {
+                replayedOrders.put(order.id(), order);
+            }
+
+            Order pendingOrder = null;
+
+            for (JournalEntry entry : entries) {
+                try {
+                    switch (entry.operation()) {
+                        case Journal.ADD:
+                            pendingOrder = parseOrder(entry.sections(), dateFormat);
+
+                            break;
+                        case Journal.ORDER_ITEM:
+                            UUID orderId = UUID.fromString(entry.sections()[1]);
+
+                            if(pendingOrder != null && pendingOrder.id().equals(orderId)) {
+                                pendingOrder.addOrderItem(parseOrderItem(entry.sections()));
+                            }
+
+                            break;
+                        case Journal.COMMIT:
+                            UUID committedId = UUID.fromString(entry.sections()[0]);
+
+                            if(pendingOrder != null && pendingOrder.id().equals(committedId)) {
+                                replayedOrders.put(pendingOrder.id(), pendingOrder);
+                            }
+
+                            pendingOrder = null;
+
+                            break;
+                        case Journal.DELETE:
+                            replayedOrders.remove(UUID.fromString(entry.sections()[0]));
+
+                            break;
+                    }
+                } catch (RuntimeException | ParseException e) {
+                    System.err.println(e.toString());
+                }
+            }
+
+            clearOrderIndexes();
+
+            for (Order order : replayedOrders.values()) {
+                indexOrder(order);
+            }
+
+            mutate(() -> snapshot = snapshot.withOrders(PersistentList.of(replayedOrders.values())));
+
+            foldJournal(ordersJournal, () -> commitOrdersFiles(getOrders()));
+        } catch (IOException e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    private JournalCommit saveOrder(Order order) {
+        if(isJournalMode()) {
+            List<String> records = new ArrayList<>();
+
+            records.add(Journal.addRecord(order.getFileRecord()));
+
+            for (OrderItem orderItem : order.orderItems()) {
+                records.add(Journal.orderItemRecord(orderItem.getFileRecord(order.id())));
+            }
+
+            records.add(Journal.commitRecord(order.id()));
+
+            return appendToJournal(ordersJournal, records);
+        }
+
+        saveAllOrdersToFiles();
+
+        return null;
+    }
+
+    private JournalCommit saveOrderDeletion(UUID id) {
+        if(isJournalMode()) {
+            return appendToJournal(ordersJournal, List.of(
+                    Journal.deleteRecord(id)
+            ));
+        }
+
+        saveAllOrdersToFiles();
+
+        return null;
+    }
+
+    public List<Order> getOrders() {
+        return snapshot.orders();
+    }
+
+    // Results come back in chronological order.
+    public List<Order> getOrdersFilterOrderedAtRange(Date from, Date to) {
+        return readLocked(() -> {
+            List<Order> filteredOrders = new ArrayList<>();
+
+            if(from.after(to)) {
+                return filteredOrders;
+            }
+
+            for (Map<UUID, Order> sameTimeOrders : ordersByOrderedAt.subMap(
+                    from.getTime(), true,
+                    to.getTime(), true
+            ).values()) {
+                filteredOrders.addAll(sameTimeOrders.values());
+            }
+
+            return filteredOrders;
+        });
+    }
+
+    // Results come back sorted by gross total, lowest first.
+    public List<Order> getOrdersFilterGrossTotalRang(BigDecimal from, BigDecimal to) {
+        return readLocked(() -> filterTotalRange(ordersByGrossTotal, Order::grossTotal, from, to));
+    }
+
+    public List<Order> getOrdersFilterNetTotalRange(BigDecimal from, BigDecimal to) {
+        return readLocked(() -> filterTotalRange(ordersByNetTotal, Order::netTotal, from, to));
+    }
+
+    public List<Order> getOrdersFilterGrossTotalAbove(BigDecimal threshold) {
+        return readLocked(() -> {
+            List<Order> filteredOrders = new ArrayList<>();
+
+            for (Map<UUID, Order> sameTotalOrders : ordersByGrossTotal.tailMap(toCents(threshold), true).values()) {
+                for (Order order : sameTotalOrders.values()) {
+                    if(order.grossTotal().compareTo(threshold) > 0) {
+                        filteredOrders.add(order);
+                    }
+                }
+            }
+
+            return filteredOrders;
+        });
+    }
+
+    // The largest Orders by gross total, largest first.
+    public List<Order> getOrdersTopGrossTotal(int limit) {
+        return readLocked(() -> {
+            List<Order> topOrders = new ArrayList<>();
+
+            for (Map<UUID, Order> sameTotalOrders : ordersByGrossTotal.descendingMap().values()) {
+                List<Order> bucket = new ArrayList<>(sameTotalOrders.values());
+
+                // Totals below a cent share a bucket, so they are ordered exactly here.
+                bucket.sort(Comparator.comparing(Order::grossTotal).reversed());
+
+                for (Order order : bucket) {
+                    if(topOrders.size() >= limit) {
+                        return topOrders;
+                    }
+
+                    topOrders.add(order);
+                }
+            }
+
+            return topOrders;
+        });
+    }
+
+    // Totals are indexed in whole cents rounded down, so only the Orders in
+    // the two boundary buckets need an exact comparison.
+    private List<Order> filterTotalRange(
+            NavigableMap<Long, Map<UUID, Order>> index,
+            Function<Order, BigDecimal> total,
+            BigDecimal from,
+            BigDecimal to
+    ) {
+        List<Order> filteredOrders = new ArrayList<>();
+
+        if(from.compareTo(to) > 0) {
+            return filteredOrders;
+        }
+
+        long fromCents = toCents(from);
+        long toCents = toCents(to);
+
+        for (Map.Entry<Long, Map<UUID, Order>> entry : index.subMap(fromCents, true, toCents, true).entrySet()) {
+            boolean boundary = entry.getKey() == fromCents || entry.getKey() == toCents;
+
+            for (Order order : entry.getValue().values()) {
+                if(
+                        !boundary || (
+                                total.apply(order).compareTo(from) >= 0 &&
+                                total.apply(order).compareTo(to) <= 0
+                        )
+                ) {
+                    filteredOrders.add(order);
+                }
+            }
+        }
+
+        return filteredOrders;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        BigDecimal cents = amount.setScale(2, RoundingMode.FLOOR).movePointRight(2);
+
+        if(cents.compareTo(MAX_CENTS) > 0) {
+            return Long.MAX_VALUE;
+        }
+
+        if(cents.compareTo(MIN_CENTS) < 0) {
+            return Long.MIN_VALUE;
+        }
+
+        return cents.longValue();
+    }
+
+    public List<Order> getOrdersFilterClient(Client client) {
+        return readLocked(() -> {
+            Map<UUID, Order> clientOrders = ordersByClientId.get(client.id());
+
+            if(clientOrders == null) {
+                return new ArrayList<>();
+            }
+
+            return new ArrayList<>(clientOrders.values());
+        });
+    }
+
+    public List<Order> getOrdersFilterItem(UUID itemId) {
+        return readLocked(() -> {
+            Map<UUID, Order> itemOrders = ordersByItemId.get(itemId);
+
+            if(itemOrders == null) {
+                return new ArrayList<>();
+            }
+
+            return new ArrayList<>(itemOrders.values());
+        });
+    }
+
+    // Starts from the index that yields the fewest candidate Orders and
+    // checks the remaining criteria on those only. The candidates are taken
+    // under the read lock, the criteria are checked lazily as the stream is
+    // consumed; the Orders come in the order of the index that was chosen.
+    public Stream<Order> queryOrders(OrderQuery query) {
+        List<Order> candidates = readLocked(() -> findOrderCandidates(query));
+
+        if(candidates == null) {
+            candidates = getOrders();
+        }
+
+        return candidates.stream().filter(query::matches);
+    }
+
+    // Returns null when no index narrows the query down.
+    private List<Order> findOrderCandidates(OrderQuery query) {
+        List<Collection<Map<UUID, Order>>> sources = new ArrayList<>();
+
+        if(query.getItemId() != null) {
+            sources.add(indexBucket(ordersByItemId, query.getItemId()));
+        }
+
+        if(query.hasOrderedAtRange()) {
+            if(query.getOrderedAtFrom().after(query.getOrderedAtTo())) {
+                return List.of();
+            }
+
+            sources.add(ordersByOrderedAt.subMap(
+                    query.getOrderedAtFrom().getTime(), true,
+                    query.getOrderedAtTo().getTime(), true
+            ).values());
+        }
+
+        if(query.hasGrossTotalRange()) {
+            if(query.getGrossTotalFrom().compareTo(query.getGrossTotalTo()) > 0) {
+                return List.of();
+            }
+
+            sources.add(ordersByGrossTotal.subMap(
+                    toCents(query.getGrossTotalFrom()), true,
+                    toCents(query.getGrossTotalTo()), true
+            ).values());
+        }
+
+        if(query.hasNetTotalRange()) {
+            if(query.getNetTotalFrom().compareTo(query.getNetTotalTo()) > 0) {
+                return List.of();
+            }
+
+            sources.add(ordersByNetTotal.subMap(
+                    toCents(query.getNetTotalFrom()), true,
+                    toCents(query.getNetTotalTo()), true
+            ).values());
+        }
+
+        RoaringBitmap attributeMatches = matchOrderAttributes(query);
+
+        Collection<Map<UUID, Order>> plan = null;
+        long planSize = attributeMatches == null ? snapshot.orders().size() : attributeMatches.getCardinality();
+
+        for (Collection<Map<UUID, Order>> source : sources) {
+            long sourceSize = countOrders(source, planSize);
+
+            if(sourceSize < planSize) {
+                plan = source;
+                planSize = sourceSize;
+            }
+        }
+
+        if(plan != null) {
+            List<Order> candidates = new ArrayList<>();
+
+            for (Map<UUID, Order> bucket : plan) {
+                candidates.addAll(bucket.values());
+            }
+
+            return candidates;
+        }
+
+        if(attributeMatches != null) {
+            List<Order> candidates = new ArrayList<>();
+
+            attributeMatches.forEach(ordinal -> candidates.add(ordersByOrdinal.get(ordinal)));
+
+            return candidates;
+        }
+
+        return null;
+    }
+
+    // Values of one attribute are ORed together, the attributes are ANDed.
+    // Returns null when the query has no attribute criteria.
+    private RoaringBitmap matchOrderAttributes(OrderQuery query) {
+        List<RoaringBitmap> attributeMatches = new ArrayList<>();
+
+        if(query.getClientIds() != null) {
+            attributeMatches.add(matchAnyValue(orderOrdinalsByClientId, query.getClientIds()));
+        }
+
+        if(query.getDeliveryCountries() != null) {
+            attributeMatches.add(matchAnyValue(orderOrdinalsByCountry, query.getDeliveryCountries()));
+        }
+
+        if(query.getDeliveryDistricts() != null) {
+            attributeMatches.add(matchAnyValue(orderOrdinalsByDistrict, query.getDeliveryDistricts()));
+        }
+
+        if(query.getDeliveryCities() != null) {
+            attributeMatches.add(matchAnyValue(orderOrdinalsByCity, query.getDeliveryCities()));
+        }
+
+        if(attributeMatches.isEmpty()) {
+            return null;
+        }
+
+        return RoaringBitmap.and(attributeMatches);
+    }
+
+    private <K> RoaringBitmap matchAnyValue(Map<K, RoaringBitmap> index, Set<K> values) {
+        List<RoaringBitmap> valueMatches = new ArrayList<>();
+
+        for (K value : values) {
+            RoaringBitmap bitmap = index.get(value);
+
+            if(bitmap != null) {
+                valueMatches.add(bitmap);
+            }
+        }
+
+        return RoaringBitmap.or(valueMatches);
+    }
+
+    // Counting stops once the limit is passed, so sizing a wide range costs
+    // no more than the best plan found so far.
+    private long countOrders(Collection<Map<UUID, Order>> source, long limit) {
+        long count = 0;
+
+        for (Map<UUID, Order> bucket : source) {
+            count += bucket.size();
+
+            if(count > limit) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    private <K> Collection<Map<UUID, Order>> indexBucket(Map<K, Map<UUID, Order>> index, K key) {
+        Map<UUID, Order> bucket = index.get(key);
+
+        return bucket == null ? List.of() : List.of(bucket);
+    }
+
+    public Order getOrderById(UUID id) {
+        return read(() -> ordersById.get(id));
+    }
+
+    public void addOrder(Order order) {
+        try {
+            JournalCommit commit;
+
+            synchronized (writeLock) {
+                mutate(() -> {
+                    snapshot = snapshot.withOrders(snapshot.orders().plus(order));
+                    indexOrder(order);
+                });
+
+                commit = saveOrder(order);
+            }
+
+            awaitJournalCommit(commit);
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    public void deleteOrder(UUID id) {
+        try {
+            JournalCommit commit;
+
+            synchronized (writeLock) {
+                Order order = ordersById.get(id);
+
+                if(order != null) {
+                    mutate(() -> {
+                        snapshot = snapshot.withOrders(snapshot.orders().minus(order));
+                        unindexOrder(order);
+                    });
+                }
+
+                commit = saveOrderDeletion(id);
+            }
+
+            awaitJournalCommit(commit);
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+    }
+
+    // Orders of a Client or an Item are kept in the order they were added,
+    // the same order getOrders returns them in. An Item listed on several
+    // order items of one Order still maps to that Order once.
+    private void indexOrder(Order order) {
+        ordersById.put(order.id(), order);
+
+        addToIndex(ordersByOrderedAt, order.orderedAt().getTime(), order);
+        addToIndex(ordersByGrossTotal, toCents(order.grossTotal()), order);
+        addToIndex(ordersByNetTotal, toCents(order.netTotal()), order);
+
+        if(order.client() != null) {
+            addToIndex(ordersByClientId, order.client().id(), order);
+        }
+
+        for (OrderItem orderItem : order.orderItems()) {
+            if(orderItem.item() != null) {
+                addToIndex(ordersByItemId, orderItem.item().id(), order);
+            }
+        }
+
+        indexOrderOrdinal(order);
+    }
+
+    private void indexOrderOrdinal(Order order) {
+        int ordinal = ordersByOrdinal.size();
+
+        ordersByOrdinal.add(order);
+        orderOrdinals.put(order.id(), ordinal);
+
+        if(order.client() != null) {
+            addToBitmapIndex(orderOrdinalsByClientId, order.client().id(), ordinal);
+        }
+
+        addToBitmapIndex(orderOrdinalsByCountry, order.deliveryAddress().country(), ordinal);
+        addToBitmapIndex(orderOrdinalsByDistrict, order.deliveryAddress().district(), ordinal);
+        addToBitmapIndex(orderOrdinalsByCity, order.deliveryAddress().city(), ordinal);
+    }
+
+    private void unindexOrder(Order order) {
+        ordersById.remove(order.id());
+
+        removeFromIndex(ordersByOrderedAt, order.orderedAt().getTime(), order);
+        removeFromIndex(ordersByGrossTotal, toCents(order.grossTotal()), order);
+        removeFromIndex(ordersByNetTotal, toCents(order.netTotal()), order);
+
+        if(order.client() != null) {
+            removeFromIndex(ordersByClientId, order.client().id(), order);
+        }
+
+        for (OrderItem orderItem : order.orderItems()) {
+            if(orderItem.item() != null) {
+                removeFromIndex(ordersByItemId, orderItem.item().id(), order);
+            }
+        }
+
+        Integer ordinal = orderOrdinals.remove(order.id());
+
+        if(ordinal == null) {
+            return;
+        }
+
+        ordersByOrdinal.set(ordinal, null);
+        deletedOrderOrdinals++;
+
+        if(order.client() != null) {
+            removeFromBitmapIndex(orderOrdinalsByClientId, order.client().id(), ordinal);
+        }
+
+        removeFromBitmapIndex(orderOrdinalsByCountry, order.deliveryAddress().country(), ordinal);
+        removeFromBitmapIndex(orderOrdinalsByDistrict, order.deliveryAddress().district(), ordinal);
+        removeFromBitmapIndex(orderOrdinalsByCity, order.deliveryAddress().city(), ordinal);
+
+        if(deletedOrderOrdinals >= MIN_ORDINALS_TO_COMPACT
+                && deletedOrderOrdinals * 2 >= ordersByOrdinal.size()) {
+            compactOrderOrdinals();
+        }
+    }
+
+    // Deleted Orders leave empty ordinals behind. Once they make up half of
+    // them, the live Orders are numbered again from 0 in the same order, so
+    // the list and the bitmaps stay dense in a long session.
+    private void compactOrderOrdinals() {
+        List<Order> liveOrders = new ArrayList<>(ordersByOrdinal.size() - deletedOrderOrdinals);
+
+        for (Order order : ordersByOrdinal) {
+            if(order != null) {
+                liveOrders.add(order);
+            }
+        }
+
+        clearOrderOrdinals();
+
+        for (Order order : liveOrders) {
+            indexOrderOrdinal(order);
+        }
+    }
+
+    private void clearOrderIndexes() {
+        ordersById.clear();
+        ordersByClientId.clear();
+        ordersByItemId.clear();
+        ordersByOrderedAt.clear();
+        ordersByGrossTotal.clear();
+        ordersByNetTotal.clear();
+
+        clearOrderOrdinals();
+    }
+
+    private void clearOrderOrdinals() {
+        ordersByOrdinal.clear();
+        orderOrdinals.clear();
+        orderOrdinalsByClientId.clear();
+        orderOrdinalsByCountry.clear();
+        orderOrdinalsByDistrict.clear();
+        orderOrdinalsByCity.clear();
+        deletedOrderOrdinals = 0;
+    }
+
+    private <K> void addToIndex(Map<K, Map<UUID, Order>> index, K key, Order order) {
+        index.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(order.id(), order);
+    }
+
+    private <K> void addToBitmapIndex(Map<K, RoaringBitmap> index, K key, int ordinal) {
+        index.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+    }
+
+    private <K> void removeFromBitmapIndex(Map<K, RoaringBitmap> index, K key, int ordinal) {
+        RoaringBitmap bitmap = index.get(key);
+
+        if(bitmap == null) {
+            return;
+        }
+
+        bitmap.remove(ordinal);
+
+        if(bitmap.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private <K> void removeFromIndex(Map<K, Map<UUID, Order>> index, K key, Order order) {
+        Map<UUID, Order> keyOrders = index.get(key);
+
+        if(keyOrders == null) {
+            return;
+        }
+
+        keyOrders.remove(order.id());
+
+        if(keyOrders.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // In-memory changes are made under the write lock; the file and journal
+    // writes that follow are serialized by writeLock alone, so readers are
+    // only ever held up by the change itself. The change stamp is taken
+    // inside the write lock and only tells optimistic lookups that they
+    // overlapped a change.
+    private void mutate(Runnable mutation) {
+        dataLock.writeLock().lock();
+
+        long stamp = changeStamp.writeLock();
+
+        try {
+            mutation.run();
+        } finally {
+            changeStamp.unlockWrite(stamp);
+            dataLock.writeLock().unlock();
+        }
+    }
+
+    // Point lookups run without locking and are repeated under the read lock
+    // only when a change overlapped them. A lookup that tripped over a
+    // half-made change is repeated the same way.
+    private <T> T read(Supplier<T> reader) {
+        long stamp = changeStamp.tryOptimisticRead();
+
+        if(stamp != 0) {
+            try {
+                T result = reader.get();
+
+                if(changeStamp.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Repeated under the read lock below.
+            }
+        }
+
+        return readLocked(reader);
+    }
+
+    // Scans and index walks take the read lock right away: an optimistic
+    // pass over them is long enough to be thrown away often, and it walks
+    // maps the writer is changing without any happens-before edge. New
+    // readers queue behind a waiting writer, so scans cannot starve it.
+    private <T> T readLocked(Supplier<T> reader) {
+        dataLock.readLock().lock();
+
+        try {
+            return reader.get();
+        } finally {
+            dataLock.readLock().unlock();
+        }
+    }
+
+    private interface SnapshotWriter {
+        void write() throws IOException;
+    }
 }
@@ -0,0 +1,190 @@
+package data;
+
+import model.Address;
+import model.Order;
+import model.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+// Criteria for GlobalData.queryOrders. Every criterion that is set has to
+// match; ranges include both ends and a criterion given several values
+// matches any of them.
+public class OrderQuery {
+    private Date orderedAtFrom;
+    private Date orderedAtTo;
+    private BigDecimal grossTotalFrom;
+    private BigDecimal grossTotalTo;
+    private BigDecimal netTotalFrom;
+    private BigDecimal netTotalTo;
+    private Set<UUID> clientIds;
+    private UUID itemId;
+    private Set<String> deliveryCountries;
+    private Set<String> deliveryDistricts;
+    private Set<String> deliveryCities;
+
+    public OrderQuery orderedAtBetween(Date from, Date to) {
+        this.orderedAtFrom = from;
+        this.orderedAtTo = to;
+
+        return this;
+    }
+
+    public OrderQuery grossTotalBetween(BigDecimal from, BigDecimal to) {
+        this.grossTotalFrom = from;
+        this.grossTotalTo = to;
+
+        return this;
+    }
+
+    public OrderQuery netTotalBetween(BigDecimal from, BigDecimal to) {
+        this.netTotalFrom = from;
+        this.netTotalTo = to;
+
+        return this;
+    }
+
+    public OrderQuery client(UUID... clientIds) {
+        this.clientIds = Set.copyOf(Arrays.asList(clientIds));
+
+        return this;
+    }
+
+    public OrderQuery item(UUID itemId) {
+        this.itemId = itemId;
+
+        return this;
+    }
+
+    public OrderQuery deliveryCountry(String... deliveryCountries) {
+        this.deliveryCountries = Set.copyOf(Arrays.asList(deliveryCountries));
+
+        return this;
+    }
+
+    public OrderQuery deliveryDistrict(String... deliveryDistricts) {
+        this.deliveryDistricts = Set.copyOf(Arrays.asList(deliveryDistricts));
+
+        return this;
+    }
+
+    public OrderQuery deliveryCity(String... deliveryCities) {
+        this.deliveryCities = Set.copyOf(Arrays.asList(deliveryCities));
+
+        return this;
+    }
+
+    Date getOrderedAtFrom() {
+        return orderedAtFrom;
+    }
+
+    Date getOrderedAtTo() {
+        return orderedAtTo;
+    }
+
+    BigDecimal getGrossTotalFrom() {
+        return grossTotalFrom;
+    }
+
+    BigDecimal getGrossTotalTo() {
+        return grossTotalTo;
+    }
+
+    BigDecimal getNetTotalFrom() {
+        return netTotalFrom;
+    }
+
+    BigDecimal getNetTotalTo() {
+        return netTotalTo;
+    }
+
+    Set<UUID> getClientIds() {
+        return clientIds;
+    }
+
+    UUID getItemId() {
+        return itemId;
+    }
+
+    Set<String> getDeliveryCountries() {
+        return deliveryCountries;
+    }
+
+    Set<String> getDeliveryDistricts() {
+        return deliveryDistricts;
+    }
+
+    Set<String> getDeliveryCities() {
+        return deliveryCities;
+    }
+
+    boolean hasOrderedAtRange() {
+        return orderedAtFrom != null && orderedAtTo != null;
+    }
+
+    boolean hasGrossTotalRange() {
+        return grossTotalFrom != null && grossTotalTo != null;
+    }
+
+    boolean hasNetTotalRange() {
+        return netTotalFrom != null && netTotalTo != null;
+    }
+
+    boolean matches(Order order) {
+        if(
+                hasOrderedAtRange() && (
+                        order.orderedAt().before(orderedAtFrom) ||
+                        order.orderedAt().after(orderedAtTo)
+                )
+        ) {
+            return false;
+        }
+
+        if(
+                hasGrossTotalRange() && (
+                        order.grossTotal().compareTo(grossTotalFrom) < 0 ||
+                        order.grossTotal().compareTo(grossTotalTo) > 0
+                )
+        ) {
+            return false;
+        }
+
+        if(
+                hasNetTotalRange() && (
+                        order.netTotal().compareTo(netTotalFrom) < 0 ||
+                        order.netTotal().compareTo(netTotalTo) > 0
+                )
+        ) {
+            return false;
+        }
+
+        if(clientIds != null && (order.client() == null || !clientIds.contains(order.client().id()))) {
+            return false;
+        }
+
+        Address deliveryAddress = order.deliveryAddress();
+
+        if(
+                (deliveryCountries != null && !deliveryCountries.contains(deliveryAddress.country())) ||
+                (deliveryDistricts != null && !deliveryDistricts.contains(deliveryAddress.district())) ||
+                (deliveryCities != null && !deliveryCities.contains(deliveryAddress.city()))
+        ) {
+            return false;
+        }
+
+        return itemId == null || containsItem(order);
+    }
+
+    private boolean containsItem(Order order) {
+        for (OrderItem orderItem : order.orderItems()) {
+            if(orderItem.item() != null && orderItem.item().id().equals(itemId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
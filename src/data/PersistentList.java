@@ -0,0 +1,166 @@
+package data;
+
+import java.util.*;
+
+// An immutable list whose plus and minus return a new list that shares all
+// but one chunk with the old one, so publishing a changed list costs a few
+// small copies instead of copying every element.
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int CHUNK_SIZE = 512;
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(new Object[0][], new int[0], 0);
+
+    private final Object[][] chunks;
+    private final int[] offsets;
+    private final int size;
+
+    private PersistentList(Object[][] chunks, int[] offsets, int size) {
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    public static <T> PersistentList<T> of(Collection<? extends T> values) {
+        Object[] elements = values.toArray();
+        int chunkCount = (elements.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Object[][] chunks = new Object[chunkCount][];
+        int[] offsets = new int[chunkCount];
+
+        for (int i = 0; i < chunkCount; i++) {
+            int from = i * CHUNK_SIZE;
+
+            chunks[i] = Arrays.copyOfRange(elements, from, Math.min(from + CHUNK_SIZE, elements.length));
+            offsets[i] = from;
+        }
+
+        return new PersistentList<>(chunks, offsets, elements.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+
+        int chunk = findChunk(index);
+
+        return (T) chunks[chunk][index - offsets[chunk]];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                T value = (T) chunks[chunk][position++];
+
+                if(position == chunks[chunk].length) {
+                    chunk++;
+                    position = 0;
+                }
+
+                return value;
+            }
+        };
+    }
+
+    public PersistentList<T> plus(T value) {
+        int last = chunks.length - 1;
+
+        if(last >= 0 && chunks[last].length < CHUNK_SIZE) {
+            Object[][] newChunks = chunks.clone();
+            Object[] lastChunk = Arrays.copyOf(chunks[last], chunks[last].length + 1);
+
+            lastChunk[lastChunk.length - 1] = value;
+            newChunks[last] = lastChunk;
+
+            return new PersistentList<>(newChunks, offsets, size + 1);
+        }
+
+        Object[][] newChunks = Arrays.copyOf(chunks, chunks.length + 1);
+        int[] newOffsets = Arrays.copyOf(offsets, offsets.length + 1);
+
+        newChunks[chunks.length] = new Object[] {value};
+        newOffsets[offsets.length] = size;
+
+        return new PersistentList<>(newChunks, newOffsets, size + 1);
+    }
+
+    // Matches by identity, the element has to be the instance that was added.
+    public PersistentList<T> minus(T value) {
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            Object[] elements = chunks[chunk];
+
+            for (int position = 0; position < elements.length; position++) {
+                if(elements[position] == value) {
+                    return without(chunk, position);
+                }
+            }
+        }
+
+        return this;
+    }
+
+    private PersistentList<T> without(int chunk, int position) {
+        Object[] elements = chunks[chunk];
+
+        if(elements.length == 1) {
+            Object[][] newChunks = new Object[chunks.length - 1][];
+            int[] newOffsets = new int[offsets.length - 1];
+
+            System.arraycopy(chunks, 0, newChunks, 0, chunk);
+            System.arraycopy(chunks, chunk + 1, newChunks, chunk, chunks.length - chunk - 1);
+            System.arraycopy(offsets, 0, newOffsets, 0, chunk);
+
+            for (int i = chunk; i < newOffsets.length; i++) {
+                newOffsets[i] = offsets[i + 1] - 1;
+            }
+
+            return new PersistentList<>(newChunks, newOffsets, size - 1);
+        }
+
+        Object[] newElements = new Object[elements.length - 1];
+
+        System.arraycopy(elements, 0, newElements, 0, position);
+        System.arraycopy(elements, position + 1, newElements, position, elements.length - position - 1);
+
+        Object[][] newChunks = chunks.clone();
+        int[] newOffsets = offsets.clone();
+
+        newChunks[chunk] = newElements;
+
+        for (int i = chunk + 1; i < newOffsets.length; i++) {
+            newOffsets[i]--;
+        }
+
+        return new PersistentList<>(newChunks, newOffsets, size - 1);
+    }
+
+    private int findChunk(int index) {
+        int chunk = Arrays.binarySearch(offsets, index);
+
+        return chunk >= 0 ? chunk : -chunk - 2;
+    }
+}
@@ -0,0 +1,140 @@
+package data.index;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Case-insensitive token search. The text of every value is split into
+// lower-cased words, and a query matches the values that have, for each of
+// its own words, some word starting with it.
+public class PrefixIndex<T> {
+    private final Function<T, UUID> id;
+    private final Function<T, List<String>> fields;
+
+    private final Map<UUID, Entry<T>> entries;
+    private final NavigableMap<String, Set<UUID>> postings;
+    private long nextSequence;
+
+    public PrefixIndex(Function<T, UUID> id, Function<T, List<String>> fields) {
+        this.id = id;
+        this.fields = fields;
+
+        this.entries = new LinkedHashMap<>();
+        this.postings = new TreeMap<>();
+    }
+
+    public void add(T value) {
+        UUID valueId = id.apply(value);
+
+        entries.put(valueId, new Entry<>(value, nextSequence++));
+
+        for (String token : tokens(fields.apply(value))) {
+            postings.computeIfAbsent(token, key -> new HashSet<>()).add(valueId);
+        }
+    }
+
+    public void remove(T value) {
+        UUID valueId = id.apply(value);
+
+        if(entries.remove(valueId) == null) {
+            return;
+        }
+
+        for (String token : tokens(fields.apply(value))) {
+            Set<UUID> ids = postings.get(token);
+
+            if(ids == null) {
+                continue;
+            }
+
+            ids.remove(valueId);
+
+            if(ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        postings.clear();
+        nextSequence = 0;
+    }
+
+    // Matches come back in the order the values were added, at most limit
+    // of them; a query without words matches every value.
+    public List<T> search(String query, int limit) {
+        List<T> matches = new ArrayList<>();
+        Set<String> queryTokens = tokens(List.of(query));
+
+        if(queryTokens.isEmpty()) {
+            for (Entry<T> entry : entries.values()) {
+                if(matches.size() >= limit) {
+                    break;
+                }
+
+                matches.add(entry.value());
+            }
+
+            return matches;
+        }
+
+        Set<UUID> matchingIds = null;
+
+        for (String queryToken : queryTokens) {
+            Set<UUID> tokenIds = new HashSet<>();
+
+            for (Set<UUID> ids : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).values()) {
+                tokenIds.addAll(ids);
+            }
+
+            if(matchingIds == null) {
+                matchingIds = tokenIds;
+            } else {
+                matchingIds.retainAll(tokenIds);
+            }
+
+            if(matchingIds.isEmpty()) {
+                return matches;
+            }
+        }
+
+        List<Entry<T>> matchingEntries = new ArrayList<>();
+
+        for (UUID matchingId : matchingIds) {
+            matchingEntries.add(entries.get(matchingId));
+        }
+
+        matchingEntries.sort(Comparator.comparingLong(Entry::sequence));
+
+        for (Entry<T> entry : matchingEntries) {
+            if(matches.size() >= limit) {
+                break;
+            }
+
+            matches.add(entry.value());
+        }
+
+        return matches;
+    }
+
+    private static Set<String> tokens(List<String> texts) {
+        Set<String> tokens = new HashSet<>();
+
+        for (String text : texts) {
+            if(text == null) {
+                continue;
+            }
+
+            for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if(!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+
+        return tokens;
+    }
+
+    private record Entry<T>(T value, long sequence) {
+    }
+}
@@ -0,0 +1,411 @@
+package data.index;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+// A compressed set of non-negative ints. Values are grouped by their upper
+// 16 bits; each group keeps its lower 16 bits either as a sorted array while
+// it is sparse or as a 65536-bit bitmap once it holds more than 4096 values,
+// whichever is smaller.
+public class RoaringBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final TreeMap<Integer, Container> containers;
+
+    public RoaringBitmap() {
+        this.containers = new TreeMap<>();
+    }
+
+    public void add(int value) {
+        int key = value >>> 16;
+        Container container = containers.get(key);
+
+        if(container == null) {
+            container = new ArrayContainer();
+        }
+
+        containers.put(key, container.add((char) value));
+    }
+
+    public void remove(int value) {
+        int key = value >>> 16;
+        Container container = containers.get(key);
+
+        if(container == null) {
+            return;
+        }
+
+        container = container.remove((char) value);
+
+        if(container.getCardinality() == 0) {
+            containers.remove(key);
+        } else {
+            containers.put(key, container);
+        }
+    }
+
+    public boolean isEmpty() {
+        return containers.isEmpty();
+    }
+
+    public int getCardinality() {
+        int cardinality = 0;
+
+        for (Container container : containers.values()) {
+            cardinality += container.getCardinality();
+        }
+
+        return cardinality;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            entry.getValue().forEach(entry.getKey() << 16, consumer);
+        }
+    }
+
+    public static RoaringBitmap and(RoaringBitmap first, RoaringBitmap second) {
+        RoaringBitmap result = new RoaringBitmap();
+
+        for (Map.Entry<Integer, Container> entry : first.containers.entrySet()) {
+            Container other = second.containers.get(entry.getKey());
+
+            if(other == null) {
+                continue;
+            }
+
+            Container container = entry.getValue().and(other);
+
+            if(container.getCardinality() > 0) {
+                result.containers.put(entry.getKey(), container);
+            }
+        }
+
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap first, RoaringBitmap second) {
+        RoaringBitmap result = new RoaringBitmap();
+
+        for (Map.Entry<Integer, Container> entry : first.containers.entrySet()) {
+            Container other = second.containers.get(entry.getKey());
+
+            result.containers.put(
+                    entry.getKey(),
+                    other == null ? entry.getValue().copy() : entry.getValue().or(other)
+            );
+        }
+
+        for (Map.Entry<Integer, Container> entry : second.containers.entrySet()) {
+            if(!first.containers.containsKey(entry.getKey())) {
+                result.containers.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+
+        return result;
+    }
+
+    public static RoaringBitmap and(Iterable<RoaringBitmap> bitmaps) {
+        Iterator<RoaringBitmap> iterator = bitmaps.iterator();
+        RoaringBitmap result = new RoaringBitmap();
+
+        if(iterator.hasNext()) {
+            result = or(result, iterator.next());
+        }
+
+        while(iterator.hasNext() && !result.isEmpty()) {
+            result = and(result, iterator.next());
+        }
+
+        return result;
+    }
+
+    public static RoaringBitmap or(Iterable<RoaringBitmap> bitmaps) {
+        RoaringBitmap result = new RoaringBitmap();
+
+        for (RoaringBitmap bitmap : bitmaps) {
+            result = or(result, bitmap);
+        }
+
+        return result;
+    }
+
+    private interface Container {
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int getCardinality();
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container copy();
+
+        void forEach(int high, IntConsumer consumer);
+    }
+
+    private static class ArrayContainer implements Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+
+            if(index >= 0) {
+                return this;
+            }
+
+            if(cardinality >= ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+
+            index = -index - 1;
+
+            if(cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(values.length * 2, 4), ARRAY_LIMIT));
+            }
+
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+
+            if(index < 0) {
+                return this;
+            }
+
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int getCardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+
+            for (int i = 0; i < cardinality; i++) {
+                if(other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if(other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+
+            while(i < cardinality || j < array.cardinality) {
+                if(j >= array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if(i >= cardinality || array.values[j] < values[i]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+
+            ArrayContainer merged = new ArrayContainer(result, count);
+
+            return count > ARRAY_LIMIT ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+
+            return bitmap;
+        }
+    }
+
+    private static class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+
+            if((word & bit) == 0) {
+                words[value >>> 6] = word | bit;
+                cardinality++;
+            }
+
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+
+            if((word & bit) == 0) {
+                return this;
+            }
+
+            words[value >>> 6] = word & ~bit;
+            cardinality--;
+
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int getCardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if(other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            BitmapContainer bitmap = (BitmapContainer) other;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+
+            BitmapContainer intersection = new BitmapContainer(result, count);
+
+            return count <= ARRAY_LIMIT ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+
+            if(other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+
+                return result;
+            }
+
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int count = 0;
+
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] |= bitmap.words[i];
+                count += Long.bitCount(result.words[i]);
+            }
+
+            result.cardinality = count;
+
+            return result;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+
+                while(word != 0) {
+                    consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+
+                while(word != 0) {
+                    values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+
+            return new ArrayContainer(values, count);
+        }
+    }
+}
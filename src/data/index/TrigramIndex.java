@@ -0,0 +1,117 @@
+package data.index;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Case-insensitive substring search. Every value is listed under each
+// three-character sequence of its lower-cased text; a query only checks the
+// values listed under its rarest trigram. Queries shorter than a trigram
+// fall back to checking every value.
+public class TrigramIndex<T> {
+    private static final int GRAM_LENGTH = 3;
+
+    private final Function<T, UUID> id;
+    private final Function<T, String> text;
+
+    private final Map<UUID, T> values;
+    private final Map<String, Set<UUID>> postings;
+
+    public TrigramIndex(Function<T, UUID> id, Function<T, String> text) {
+        this.id = id;
+        this.text = text;
+
+        this.values = new LinkedHashMap<>();
+        this.postings = new HashMap<>();
+    }
+
+    public void add(T value) {
+        UUID valueId = id.apply(value);
+
+        values.put(valueId, value);
+
+        for (String gram : grams(normalize(text.apply(value)))) {
+            postings.computeIfAbsent(gram, key -> new LinkedHashSet<>()).add(valueId);
+        }
+    }
+
+    public void remove(T value) {
+        UUID valueId = id.apply(value);
+
+        if(values.remove(valueId) == null) {
+            return;
+        }
+
+        for (String gram : grams(normalize(text.apply(value)))) {
+            Set<UUID> ids = postings.get(gram);
+
+            if(ids == null) {
+                continue;
+            }
+
+            ids.remove(valueId);
+
+            if(ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    public void clear() {
+        values.clear();
+        postings.clear();
+    }
+
+    // Matches come back in the order the values were added.
+    public List<T> search(String query) {
+        String normalizedQuery = normalize(query);
+        List<T> matches = new ArrayList<>();
+
+        if(normalizedQuery.length() < GRAM_LENGTH) {
+            for (T value : values.values()) {
+                if(normalize(text.apply(value)).contains(normalizedQuery)) {
+                    matches.add(value);
+                }
+            }
+
+            return matches;
+        }
+
+        Set<UUID> candidates = null;
+
+        for (String gram : grams(normalizedQuery)) {
+            Set<UUID> ids = postings.get(gram);
+
+            if(ids == null) {
+                return matches;
+            }
+
+            if(candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+
+        for (UUID candidate : candidates) {
+            T value = values.get(candidate);
+
+            if(normalize(text.apply(value)).contains(normalizedQuery)) {
+                matches.add(value);
+            }
+        }
+
+        return matches;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+}
@@ -0,0 +1,186 @@
+package data.storage;
+
+import model.*;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Orders together with their order items in one file: a magic number and a
+// format version, the order count, then every order followed by its items.
+// UUIDs are stored as two longs, dates as epoch millis and amounts as an
+// unscaled long with its scale.
+public class BinaryOrdersFile {
+    private static final int MAGIC = 0x4F4D534F;
+    private static final short VERSION = 1;
+    private static final byte TEXT_AMOUNT_SCALE = Byte.MIN_VALUE;
+
+    private final File file;
+
+    public BinaryOrdersFile(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return file.exists() && file.length() > 0;
+    }
+
+    public static void write(File file, List<Order> orders) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file, false),
+                1 << 16
+        ))) {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeInt(orders.size());
+
+            for (Order order : orders) {
+                writeUuid(output, order.id());
+                output.writeLong(order.orderedAt().getTime());
+                writeAmount(output, order.netTotal());
+                writeAmount(output, order.grossTotal());
+                writeUuid(output, order.client().id());
+                writeAddress(output, order.deliveryAddress());
+
+                output.writeInt(order.orderItems().size());
+
+                for (OrderItem orderItem : order.orderItems()) {
+                    writeUuid(output, orderItem.id());
+                    writeUuid(output, orderItem.item().id());
+                    output.writeInt(orderItem.count());
+                    output.writeInt(orderItem.discount());
+                    writeAmount(output, orderItem.netSum());
+                    writeAmount(output, orderItem.grossSum());
+                }
+            }
+        }
+    }
+
+    public List<Order> read(
+            Function<UUID, Client> clientLookup,
+            Function<UUID, Item> itemLookup
+    ) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file),
+                1 << 16
+        ))) {
+            if(input.readInt() != MAGIC) {
+                throw new IOException(file + " is not an orders file");
+            }
+
+            short version = input.readShort();
+
+            if(version != VERSION) {
+                throw new IOException("Unsupported orders file version " + version + " in " + file);
+            }
+
+            int orderCount = input.readInt();
+            List<Order> orders = new ArrayList<>(orderCount);
+
+            for (int i = 0; i < orderCount; i++) {
+                UUID id = readUuid(input);
+                Date orderedAt = new Date(input.readLong());
+                BigDecimal netTotal = readAmount(input);
+                BigDecimal grossTotal = readAmount(input);
+                Client client = clientLookup.apply(readUuid(input));
+                Address deliveryAddress = readAddress(input);
+
+                int orderItemCount = input.readInt();
+                List<OrderItem> orderItems = new ArrayList<>(orderItemCount);
+
+                for (int j = 0; j < orderItemCount; j++) {
+                    orderItems.add(new OrderItem(
+                            readUuid(input),
+                            itemLookup.apply(readUuid(input)),
+                            input.readInt(),
+                            input.readInt(),
+                            readAmount(input),
+                            readAmount(input)
+                    ));
+                }
+
+                orders.add(new Order(
+                        id,
+                        orderedAt,
+                        orderItems,
+                        netTotal,
+                        grossTotal,
+                        client,
+                        deliveryAddress
+                ));
+            }
+
+            return orders;
+        }
+    }
+
+    private static void writeUuid(DataOutputStream output, UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    // Amounts whose unscaled value or scale does not fit are kept as text.
+    private static void writeAmount(DataOutputStream output, BigDecimal amount) throws IOException {
+        BigInteger unscaledValue = amount.unscaledValue();
+        int scale = amount.scale();
+
+        if(
+                unscaledValue.bitLength() < Long.SIZE &&
+                scale > TEXT_AMOUNT_SCALE &&
+                scale <= Byte.MAX_VALUE
+        ) {
+            output.writeByte(scale);
+            output.writeLong(unscaledValue.longValue());
+
+            return;
+        }
+
+        output.writeByte(TEXT_AMOUNT_SCALE);
+        output.writeUTF(amount.toString());
+    }
+
+    private static BigDecimal readAmount(DataInputStream input) throws IOException {
+        byte scale = input.readByte();
+
+        if(scale == TEXT_AMOUNT_SCALE) {
+            return new BigDecimal(input.readUTF());
+        }
+
+        return BigDecimal.valueOf(input.readLong(), scale);
+    }
+
+    private static void writeAddress(DataOutputStream output, Address address) throws IOException {
+        output.writeUTF(address.street());
+        output.writeUTF(address.houseNumber());
+        output.writeUTF(address.apartmentNumber());
+        output.writeUTF(address.city());
+        output.writeUTF(address.zipCode());
+        output.writeUTF(address.district());
+        output.writeUTF(address.country());
+    }
+
+    private static Address readAddress(DataInputStream input) throws IOException {
+        return new Address(
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF()
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package data.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+// Splits a record file into byte ranges that start and end on line breaks
+// and parses every range on a fork-join worker into its own list. The
+// lists are returned in file order.
+public class ChunkedRecordParser<T> {
+    private static final long MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    public interface RecordParser<T> {
+        T parse(String[] sections) throws ParseException;
+    }
+
+    private final File file;
+    private final Supplier<RecordParser<T>> parserFactory;
+
+    public ChunkedRecordParser(File file, Supplier<RecordParser<T>> parserFactory) {
+        this.file = file;
+        this.parserFactory = parserFactory;
+    }
+
+    public List<List<T>> parse() throws IOException {
+        long[] boundaries = findChunkBoundaries();
+        List<List<T>> chunks = new ArrayList<>();
+
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            chunks.add(new ArrayList<>());
+        }
+
+        ForkJoinPool.commonPool().invoke(new ChunkTask(boundaries, chunks, 0, chunks.size()));
+
+        return chunks;
+    }
+
+    private long[] findChunkBoundaries() throws IOException {
+        long size = file.length();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long chunkCount = Math.max(1, Math.min(size / MIN_CHUNK_SIZE, (long) parallelism * CHUNKS_PER_WORKER));
+        long chunkSize = size / chunkCount;
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (long i = 1; i < chunkCount; i++) {
+                long previous = boundaries.get(boundaries.size() - 1);
+                long boundary = nextLineStart(channel, Math.max(previous, i * chunkSize), size);
+
+                if(boundary > previous && boundary < size) {
+                    boundaries.add(boundary);
+                }
+            }
+        }
+
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+        while(position < size) {
+            buffer.clear();
+
+            int read = channel.read(buffer, position);
+
+            if(read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                if(buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+
+            position += read;
+        }
+
+        return size;
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private final long[] boundaries;
+        private final List<List<T>> chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(long[] boundaries, List<List<T>> chunks, int from, int to) {
+            this.boundaries = boundaries;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(
+                        new ChunkTask(boundaries, chunks, from, middle),
+                        new ChunkTask(boundaries, chunks, middle, to)
+                );
+
+                return;
+            }
+
+            List<T> records = chunks.get(from);
+            RecordParser<T> parser = parserFactory.get();
+
+            try {
+                RecordReader.read(
+                        file,
+                        boundaries[from],
+                        boundaries[from + 1],
+                        sections -> records.add(parser.parse(sections))
+                );
+            } catch (IOException | ParseException e) {
+                System.err.println(e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package data.storage;
+
+public record CommitStats(
+        long writes,
+        long commits,
+        long records
+) {
+    public CommitStats add(CommitStats other) {
+        return new CommitStats(
+                writes + other.writes,
+                commits + other.commits,
+                records + other.records
+        );
+    }
+
+    public double averageBatchSize() {
+        return writes == 0 ? 0 : (double) commits / writes;
+    }
+
+    @Override
+    public String toString() {
+        return
+                commits + " commits (" +
+                records + " records) in " +
+                writes + " writes, " +
+                String.format("%.2f", averageBatchSize()) + " commits per write";
+    }
+}
@@ -0,0 +1,114 @@
+package data.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Decides when journal writes and directory entries are forced to the disk:
+// never, by a background thread every syncIntervalMillis, or right after
+// every write. Full saves always force their files before the rename.
+public class Durability {
+    public interface Syncable {
+        void sync() throws IOException;
+    }
+
+    private final SyncMode syncMode;
+    private final Map<Object, Syncable> pendingSyncs;
+    private ScheduledExecutorService scheduler;
+
+    public Durability(SyncMode syncMode, long syncIntervalMillis) {
+        this.syncMode = syncMode;
+        this.pendingSyncs = new LinkedHashMap<>();
+
+        if(syncMode == SyncMode.INTERVAL) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "interval-sync");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+            scheduler.scheduleWithFixedDelay(
+                    this::syncPending,
+                    syncIntervalMillis,
+                    syncIntervalMillis,
+                    TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    // Makes renames inside the directory durable. Not every platform can
+    // open a directory, there the rename is left to the file system.
+    public static Syncable directory(File directory) {
+        return () -> {
+            try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                // Directories cannot be synced on this platform.
+            }
+        };
+    }
+
+    // Writes under the same key share one pending sync in interval mode.
+    public void afterWrite(Object key, Syncable syncable) throws IOException {
+        switch (syncMode) {
+            case COMMIT:
+                syncable.sync();
+
+                break;
+            case INTERVAL:
+                synchronized (pendingSyncs) {
+                    pendingSyncs.put(key, syncable);
+                }
+
+                break;
+            case NONE:
+                break;
+        }
+    }
+
+    // Lets a file that is closing force its last writes, which a pending
+    // sync could no longer reach once the file is closed.
+    public boolean forcesWrites() {
+        return syncMode != SyncMode.NONE;
+    }
+
+    public void close() {
+        if(scheduler != null) {
+            scheduler.shutdown();
+
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        syncPending();
+    }
+
+    private void syncPending() {
+        List<Syncable> syncables;
+
+        synchronized (pendingSyncs) {
+            syncables = new ArrayList<>(pendingSyncs.values());
+            pendingSyncs.clear();
+        }
+
+        for (Syncable syncable : syncables) {
+            try {
+                syncable.sync();
+            } catch (IOException e) {
+                System.err.println(e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package data.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Replaces one or more files as a unit. New contents are written to sibling
+// ".tmp" files; commit forces them to the disk and renames them over the
+// live files. A group of files first gets a marker file: a crash before the
+// marker leaves all the old files in place, a crash after it is rolled
+// forward by recover() on the next start.
+public class FileTransaction {
+    private final File markerFile;
+    private final List<File> targets;
+
+    public FileTransaction(File target) {
+        this.markerFile = null;
+        this.targets = List.of(target);
+    }
+
+    public FileTransaction(File markerFile, List<File> targets) {
+        this.markerFile = markerFile;
+        this.targets = List.copyOf(targets);
+    }
+
+    public File getTempFile(File target) {
+        return new File(target.getPath() + ".tmp");
+    }
+
+    public void commit() throws IOException {
+        for (File target : targets) {
+            force(getTempFile(target));
+        }
+
+        if(markerFile != null) {
+            writeMarker();
+        }
+
+        moveTempFiles();
+
+        if(markerFile != null) {
+            Files.delete(markerFile.toPath());
+        }
+    }
+
+    public void recover() throws IOException {
+        if(markerFile == null || !markerFile.exists()) {
+            return;
+        }
+
+        moveTempFiles();
+
+        Files.delete(markerFile.toPath());
+    }
+
+    private void moveTempFiles() throws IOException {
+        for (File target : targets) {
+            File tempFile = getTempFile(target);
+
+            if(!tempFile.exists()) {
+                continue;
+            }
+
+            Files.move(
+                    tempFile.toPath(),
+                    target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+            );
+        }
+    }
+
+    private void writeMarker() throws IOException {
+        StringBuilder content = new StringBuilder();
+
+        for (File target : targets) {
+            content.append(target.getName()).append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                markerFile.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            channel.force(true);
+        }
+    }
+
+    private void force(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package data.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Reads, writes and truncation synchronize on the journal, so a reader
+// never sees half of a batch and truncation never races a write.
+//
+// Appends use group commit: records are queued in call order and the first
+// caller to wait for them becomes the leader, which writes everything queued
+// so far with one write and hands it to the durability policy once. The
+// other callers only wait for the leader's batch to complete.
+public class Journal {
+    public static final String ADD = "A";
+    public static final String DELETE = "D";
+    public static final String ORDER_ITEM = "I";
+    public static final String COMMIT = "C";
+
+    private final File file;
+    private final Durability durability;
+    private final long groupCommitWindowMillis;
+
+    private FileChannel channel;
+    private long tombstoneCount;
+
+    private final Object commitMonitor;
+    private final List<String> pendingLines;
+    private long enqueuedCommits;
+    private long completedCommits;
+    private boolean leaderWriting;
+    private long failedFrom;
+    private long failedTo;
+    private IOException failure;
+
+    private long writeCount;
+    private long commitCount;
+    private long recordCount;
+
+    public Journal(File file, Durability durability, long groupCommitWindowMillis) {
+        this.file = file;
+        this.durability = durability;
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+
+        this.commitMonitor = new Object();
+        this.pendingLines = new ArrayList<>();
+    }
+
+    public static String addRecord(String fileRecord) {
+        return ADD + ";" + fileRecord;
+    }
+
+    public static String deleteRecord(UUID id) {
+        return DELETE + ";" + id;
+    }
+
+    public static String orderItemRecord(String fileRecord) {
+        return ORDER_ITEM + ";" + fileRecord;
+    }
+
+    public static String commitRecord(UUID id) {
+        return COMMIT + ";" + id;
+    }
+
+    public synchronized long size() {
+        return file.length();
+    }
+
+    public synchronized long getTombstoneCount() {
+        return tombstoneCount;
+    }
+
+    public CommitStats getCommitStats() {
+        synchronized (commitMonitor) {
+            return new CommitStats(writeCount, commitCount, recordCount);
+        }
+    }
+
+    public void append(List<String> lines) throws IOException {
+        awaitCommit(enqueue(lines));
+    }
+
+    // Queues the records and returns a ticket for awaitCommit. Queuing is
+    // cheap, so callers can do it while holding their own lock and wait for
+    // the write after releasing it.
+    public long enqueue(List<String> lines) {
+        synchronized (commitMonitor) {
+            pendingLines.addAll(lines);
+
+            return ++enqueuedCommits;
+        }
+    }
+
+    public void awaitCommit(long ticket) throws IOException {
+        List<String> batch;
+        long batchFrom;
+        long batchTo;
+
+        synchronized (commitMonitor) {
+            while(true) {
+                if(completedCommits >= ticket) {
+                    if(failure != null && ticket >= failedFrom && ticket <= failedTo) {
+                        throw failure;
+                    }
+
+                    return;
+                }
+
+                if(!leaderWriting) {
+                    break;
+                }
+
+                waitForCommit();
+            }
+
+            leaderWriting = true;
+
+            waitForGroupCommitWindow();
+
+            batch = new ArrayList<>(pendingLines);
+            batchFrom = completedCommits + 1;
+            batchTo = enqueuedCommits;
+
+            pendingLines.clear();
+        }
+
+        IOException batchFailure = null;
+
+        try {
+            write(batch);
+            durability.afterWrite(this, this::sync);
+        } catch (IOException e) {
+            batchFailure = e;
+        }
+
+        synchronized (commitMonitor) {
+            completedCommits = batchTo;
+            leaderWriting = false;
+
+            if(batchFailure != null) {
+                failure = batchFailure;
+                failedFrom = batchFrom;
+                failedTo = batchTo;
+            }
+
+            writeCount++;
+            commitCount += batchTo - batchFrom + 1;
+            recordCount += batch.size();
+
+            commitMonitor.notifyAll();
+        }
+
+        if(batchFailure != null) {
+            throw batchFailure;
+        }
+    }
+
+    // Lets commits arriving shortly after the leader join its batch.
+    private void waitForGroupCommitWindow() {
+        long deadline = System.currentTimeMillis() + groupCommitWindowMillis;
+        long remaining = groupCommitWindowMillis;
+
+        while(remaining > 0) {
+            try {
+                commitMonitor.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    private void waitForCommit() throws IOException {
+        try {
+            commitMonitor.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting for " + file);
+        }
+    }
+
+    private synchronized void write(List<String> lines) throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        for (String line : lines) {
+            builder.append(line).append('\n');
+
+            if(line.startsWith(DELETE + ";")) {
+                tombstoneCount++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+
+        if(channel == null) {
+            channel = FileChannel.open(
+                    file.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND
+            );
+        }
+
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public synchronized void sync() throws IOException {
+        if(channel != null) {
+            channel.force(false);
+        }
+    }
+
+    // Writes whatever is still queued before closing the file, and forces it
+    // unless the journal is never synced.
+    public void close() throws IOException {
+        long ticket;
+
+        synchronized (commitMonitor) {
+            ticket = enqueuedCommits;
+        }
+
+        awaitCommit(ticket);
+
+        synchronized (this) {
+            if(durability.forcesWrites()) {
+                sync();
+            }
+
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if(channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // A line is only trusted once its newline is on disk, so a write torn
+    // by a crash is dropped instead of being replayed half-parsed.
+    public synchronized List<JournalEntry> readEntries() throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        tombstoneCount = 0;
+
+        if(!file.exists() || file.length() == 0) {
+            return entries;
+        }
+
+        boolean lastLineComplete = endsWithNewline();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file),
+                StandardCharsets.UTF_8
+        ))) {
+            String line = reader.readLine();
+
+            while(line != null) {
+                String nextLine = reader.readLine();
+
+                if(nextLine == null && !lastLineComplete) {
+                    System.err.println("Skipping incomplete journal record in " + file);
+
+                    break;
+                }
+
+                if(!line.isEmpty()) {
+                    String[] sections = line.split(";", -1);
+
+                    entries.add(new JournalEntry(
+                            sections[0],
+                            Arrays.copyOfRange(sections, 1, sections.length)
+                    ));
+
+                    if(sections[0].equals(DELETE)) {
+                        tombstoneCount++;
+                    }
+                }
+
+                line = nextLine;
+            }
+        }
+
+        return entries;
+    }
+
+    public synchronized void clear() throws IOException {
+        closeChannel();
+        new FileOutputStream(file, false).close();
+        tombstoneCount = 0;
+    }
+
+    // Drops every record before the given position once a snapshot covering
+    // them is in place. The records appended after it are copied to a
+    // sibling file which is then renamed over the journal.
+    public synchronized void truncateBefore(long position) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        closeChannel();
+
+        try (
+                FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                FileChannel target = FileChannel.open(
+                        tempFile.toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING
+                )
+        ) {
+            long transferred = 0;
+            long count = source.size() - position;
+
+            while(transferred < count) {
+                transferred += source.transferTo(position + transferred, count - transferred, target);
+            }
+
+            target.force(true);
+        }
+
+        Files.move(
+                tempFile.toPath(),
+                file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+        );
+
+        readEntries();
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+
+            return randomAccessFile.read() == '\n';
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package data.storage;
+
+import java.io.IOException;
+
+public record JournalCommit(
+        Journal journal,
+        long ticket
+) {
+    public void await() throws IOException {
+        journal.awaitCommit(ticket);
+    }
+}
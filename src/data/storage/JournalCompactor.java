@@ -0,0 +1,48 @@
+package data.storage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class JournalCompactor {
+    private final ScheduledExecutorService executor;
+    private final Runnable compaction;
+
+    public JournalCompactor(Runnable compaction) {
+        this.compaction = compaction;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    public void start(long intervalMillis) {
+        executor.scheduleWithFixedDelay(
+                this::runCompaction,
+                intervalMillis,
+                intervalMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    public void stop() {
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runCompaction() {
+        try {
+            compaction.run();
+        } catch (Exception e) {
+            System.err.println(e.toString());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package data.storage;
+
+public record JournalEntry(
+        String operation,
+        String[] sections
+) {
+}
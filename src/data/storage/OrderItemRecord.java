@@ -0,0 +1,28 @@
+package data.storage;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// An orderItems.txt line parsed without resolving its Order and Item, so it
+// can be read before either of them is loaded.
+public record OrderItemRecord(
+        UUID id,
+        UUID orderId,
+        UUID itemId,
+        int count,
+        int discount,
+        BigDecimal netSum,
+        BigDecimal grossSum
+) {
+    public static OrderItemRecord parse(String[] sections) {
+        return new OrderItemRecord(
+                UUID.fromString(sections[0]),
+                UUID.fromString(sections[1]),
+                UUID.fromString(sections[2]),
+                Integer.parseInt(sections[3]),
+                Integer.parseInt(sections[4]),
+                new BigDecimal(sections[5]),
+                new BigDecimal(sections[6])
+        );
+    }
+}
@@ -0,0 +1,39 @@
+package data.storage;
+
+import model.Address;
+
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.UUID;
+
+// An orders.txt line parsed without resolving its Client, so it can be
+// read before the Clients are loaded.
+public record OrderRecord(
+        UUID id,
+        Date orderedAt,
+        BigDecimal netTotal,
+        BigDecimal grossTotal,
+        UUID clientId,
+        Address deliveryAddress
+) {
+    public static OrderRecord parse(String[] sections, DateFormat dateFormat) throws ParseException {
+        return new OrderRecord(
+                UUID.fromString(sections[0]),
+                dateFormat.parse(sections[1]),
+                new BigDecimal(sections[2]),
+                new BigDecimal(sections[3]),
+                UUID.fromString(sections[4]),
+                new Address(
+                        sections[5],
+                        sections[6],
+                        sections[7],
+                        sections[8],
+                        sections[9],
+                        sections[10],
+                        sections[11]
+                )
+        );
+    }
+}
@@ -0,0 +1,6 @@
+package data.storage;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL
+}
@@ -0,0 +1,140 @@
+package data.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+
+// Reads ";"-separated records from a file through one reused buffer. Lines
+// and fields are found by scanning bytes, so nothing goes through a regex.
+public class RecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface RecordHandler {
+        void handle(String[] sections) throws ParseException;
+    }
+
+    private final Charset charset;
+    private final ByteBuffer buffer;
+    private byte[] lineBuffer;
+    private int lineLength;
+
+    private RecordReader() {
+        this.charset = Charset.defaultCharset();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.lineBuffer = new byte[512];
+    }
+
+    public static void read(File file, RecordHandler handler) throws IOException, ParseException {
+        read(file, 0, file.length(), handler);
+    }
+
+    // The range has to start at the beginning of a line and end right after
+    // a line break or at the end of the file.
+    public static void read(
+            File file,
+            long start,
+            long end,
+            RecordHandler handler
+    ) throws IOException, ParseException {
+        new RecordReader().readRange(file, start, end, handler);
+    }
+
+    private void readRange(
+            File file,
+            long start,
+            long end,
+            RecordHandler handler
+    ) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = start;
+            byte[] bytes = buffer.array();
+
+            while(position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(end - position, BUFFER_SIZE));
+
+                int read = channel.read(buffer, position);
+
+                if(read < 0) {
+                    break;
+                }
+
+                position += read;
+
+                int segmentStart = 0;
+
+                for (int i = 0; i < read; i++) {
+                    if(bytes[i] == '\n') {
+                        appendToLine(bytes, segmentStart, i);
+                        readLine(handler);
+                        segmentStart = i + 1;
+                    }
+                }
+
+                appendToLine(bytes, segmentStart, read);
+            }
+
+            readLine(handler);
+        }
+    }
+
+    // A line may span several reads, so its bytes are gathered first.
+    private void appendToLine(byte[] bytes, int from, int to) {
+        int length = to - from;
+
+        if(length == 0) {
+            return;
+        }
+
+        if(lineBuffer.length < lineLength + length) {
+            byte[] grownLineBuffer = new byte[Math.max(lineLength + length, lineBuffer.length * 2)];
+
+            System.arraycopy(lineBuffer, 0, grownLineBuffer, 0, lineLength);
+            lineBuffer = grownLineBuffer;
+        }
+
+        System.arraycopy(bytes, from, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    private void readLine(RecordHandler handler) throws ParseException {
+        int length = lineLength;
+
+        lineLength = 0;
+
+        if(length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+
+        if(length == 0) {
+            return;
+        }
+
+        int sectionCount = 1;
+
+        for (int i = 0; i < length; i++) {
+            if(lineBuffer[i] == ';') {
+                sectionCount++;
+            }
+        }
+
+        String[] sections = new String[sectionCount];
+        int sectionIndex = 0;
+        int sectionStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            if(lineBuffer[i] == ';') {
+                sections[sectionIndex++] = new String(lineBuffer, sectionStart, i - sectionStart, charset);
+                sectionStart = i + 1;
+            }
+        }
+
+        sections[sectionIndex] = new String(lineBuffer, sectionStart, length - sectionStart, charset);
+
+        handler.handle(sections);
+    }
+}
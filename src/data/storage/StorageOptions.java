@@ -0,0 +1,71 @@
+package data.storage;
+
+public record StorageOptions(
+        PersistenceMode persistenceMode,
+        StorageFormat ordersFormat,
+        boolean writeBehind,
+        SyncMode syncMode,
+        long syncIntervalMillis,
+        long groupCommitWindowMillis,
+        long compactionIntervalMillis,
+        long compactionJournalBytes,
+        double compactionGarbageRatio
+) {
+    public static StorageOptions defaults() {
+        return new StorageOptions(
+                PersistenceMode.SNAPSHOT,
+                StorageFormat.TEXT,
+                false,
+                SyncMode.NONE,
+                1_000,
+                0,
+                30_000,
+                8 * 1024 * 1024,
+                0.5
+        );
+    }
+
+    public static StorageOptions fromSystemProperties() {
+        StorageOptions defaults = defaults();
+
+        return new StorageOptions(
+                PersistenceMode.valueOf(System.getProperty(
+                        "oms.persistenceMode",
+                        defaults.persistenceMode().name()
+                ).toUpperCase()),
+                StorageFormat.valueOf(System.getProperty(
+                        "oms.ordersFormat",
+                        defaults.ordersFormat().name()
+                ).toUpperCase()),
+                Boolean.parseBoolean(System.getProperty(
+                        "oms.writeBehind",
+                        String.valueOf(defaults.writeBehind())
+                )),
+                SyncMode.valueOf(System.getProperty(
+                        "oms.syncMode",
+                        defaults.syncMode().name()
+                ).toUpperCase()),
+                Long.getLong(
+                        "oms.syncIntervalMillis",
+                        defaults.syncIntervalMillis()
+                ),
+                Long.getLong(
+                        "oms.groupCommitWindowMillis",
+                        defaults.groupCommitWindowMillis()
+                ),
+                Long.getLong(
+                        "oms.compactionIntervalMillis",
+                        defaults.compactionIntervalMillis()
+                ),
+                Long.getLong(
+                        "oms.compactionJournalBytes",
+                        defaults.compactionJournalBytes()
+                ),
+                Double.parseDouble(System.getProperty(
+                        "oms.compactionGarbageRatio",
+                        String.valueOf(defaults.compactionGarbageRatio())
+                ))
+        );
+    }
+
+}
@@ -0,0 +1,7 @@
+package data.storage;
+
+public enum SyncMode {
+    NONE,
+    INTERVAL,
+    COMMIT
+}
@@ -0,0 +1,128 @@
+package data.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Takes writes off the calling thread. A dedicated thread drains everything
+// queued since its last pass in one go: journal records are appended in a
+// single write per journal and full rewrites queued under the same key run
+// only once.
+public class WriteBehindQueue {
+    private final Object monitor;
+    private final Map<Object, Runnable> pendingRewrites;
+    private final Map<Journal, List<String>> pendingRecords;
+    private final Thread writerThread;
+
+    private long submittedCount;
+    private long writtenCount;
+    private boolean closed;
+
+    public WriteBehindQueue() {
+        this.monitor = new Object();
+        this.pendingRewrites = new LinkedHashMap<>();
+        this.pendingRecords = new LinkedHashMap<>();
+
+        this.writerThread = new Thread(this::runWriter, "write-behind");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void submitRewrite(Object key, Runnable rewrite) {
+        synchronized (monitor) {
+            pendingRewrites.put(key, rewrite);
+            submittedCount++;
+
+            monitor.notifyAll();
+        }
+    }
+
+    public void append(Journal journal, List<String> records) {
+        synchronized (monitor) {
+            pendingRecords.computeIfAbsent(journal, key -> new ArrayList<>()).addAll(records);
+            submittedCount++;
+
+            monitor.notifyAll();
+        }
+    }
+
+    // Blocks until everything queued before the call has been written.
+    public void flush() {
+        synchronized (monitor) {
+            long target = submittedCount;
+
+            while(writtenCount < target && writerThread.isAlive()) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    return;
+                }
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (monitor) {
+            closed = true;
+
+            monitor.notifyAll();
+        }
+
+        flush();
+    }
+
+    private void runWriter() {
+        while(true) {
+            Map<Object, Runnable> rewrites;
+            Map<Journal, List<String>> records;
+            long batchCount;
+
+            synchronized (monitor) {
+                while(pendingRewrites.isEmpty() && pendingRecords.isEmpty() && !closed) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if(pendingRewrites.isEmpty() && pendingRecords.isEmpty()) {
+                    return;
+                }
+
+                rewrites = new LinkedHashMap<>(pendingRewrites);
+                records = new LinkedHashMap<>(pendingRecords);
+                batchCount = submittedCount;
+
+                pendingRewrites.clear();
+                pendingRecords.clear();
+            }
+
+            for (Map.Entry<Journal, List<String>> entry : records.entrySet()) {
+                try {
+                    entry.getKey().append(entry.getValue());
+                } catch (IOException e) {
+                    System.err.println(e.toString());
+                }
+            }
+
+            for (Runnable rewrite : rewrites.values()) {
+                try {
+                    rewrite.run();
+                } catch (RuntimeException e) {
+                    System.err.println(e.toString());
+                }
+            }
+
+            synchronized (monitor) {
+                writtenCount = batchCount;
+
+                monitor.notifyAll();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
 import data.GlobalData;
+import data.storage.StorageOptions;
 import gui.client.ClientsTablePanel;
 import gui.client.SingleClientPanel;
 import gui.item.ItemsTablePanel;
@@ -13,6 +14,7 @@ import model.Order;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 
 public class MainFrame extends JFrame {
@@ -23,8 +25,9 @@ public class MainFrame extends JFrame {
     private final String ORDERS_TABLE_PANEL = "ordersTablePanel";
     private final String SINGLE_ORDER_PANEL = "singleOrderPanel";
 
-    private final GlobalData globalData;
+    private GlobalData globalData;
 
+    private JPanel loadingPanel;
     private JPanel containerPanel;
     private CardLayout containerCardLayout;
     private ClientsTablePanel clientsTablePanel;
@@ -34,19 +37,46 @@ public class MainFrame extends JFrame {
     private OrdersTablePanel ordersTablePanel;
     private SingleOrderPanel singleOrderPanel;
 
+    // The frame is shown right away; the data is read in the background and
+    // the panels are built once it is there.
     public MainFrame(){
-        globalData = new GlobalData();
-
-        this.prepareGUI();
+        this.prepareLoadingGUI();
         this.showFrame();
+
+        new LoadingWorker().execute();
     }
-    private void prepareGUI(){
+
+    private void prepareLoadingGUI(){
         setTitle("Orders Management System");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(800, 600);
 
         setLayout(new GridLayout(1, 1));
 
+        loadingPanel = new JPanel();
+        loadingPanel.setLayout(new GridBagLayout());
+
+        JPanel loadingStatusPanel = new JPanel();
+        loadingStatusPanel.setLayout(new FlowLayout());
+
+        JLabel loadingLabel = new JLabel("Loading data...");
+
+        JProgressBar loadingProgressBar = new JProgressBar();
+        loadingProgressBar.setIndeterminate(true);
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(new CancelLoadingListener());
+
+        loadingStatusPanel.add(loadingLabel);
+        loadingStatusPanel.add(loadingProgressBar);
+        loadingStatusPanel.add(cancelButton);
+
+        loadingPanel.add(loadingStatusPanel);
+
+        add(loadingPanel);
+    }
+
+    private void prepareGUI(){
         JMenuBar menuBar = new JMenuBar();
         JMenu viewMenu = new JMenu("View");
 
@@ -84,8 +114,17 @@ public class MainFrame extends JFrame {
         containerPanel.add(ordersTablePanel, ORDERS_TABLE_PANEL);
         containerPanel.add(singleOrderPanel, SINGLE_ORDER_PANEL);
 
+        remove(loadingPanel);
+
         setJMenuBar(menuBar);
         add(containerPanel);
+
+        revalidate();
+        repaint();
+    }
+
+    private void closeFrame() {
+        dispatchEvent(new WindowEvent(this, WindowEvent.WINDOW_CLOSING));
     }
 
     private void showFrame(){
@@ -93,7 +132,11 @@ public class MainFrame extends JFrame {
     }
 
     public void openClientsTablePanel() {
-        clientsTablePanel.reloadPanel();
+        containerCardLayout.show(containerPanel, CLIENTS_TABLE_PANEL);
+    }
+
+    public void openClientsTablePanelAfterAdd() {
+        clientsTablePanel.showAllIfFiltered();
         containerCardLayout.show(containerPanel, CLIENTS_TABLE_PANEL);
     }
 
@@ -108,7 +151,11 @@ public class MainFrame extends JFrame {
     }
 
     public void openItemsTablePanel() {
-        itemsTablePanel.reloadPanel();
+        containerCardLayout.show(containerPanel, ITEMS_TABLE_PANEL);
+    }
+
+    public void openItemsTablePanelAfterAdd() {
+        itemsTablePanel.showAllIfFiltered();
         containerCardLayout.show(containerPanel, ITEMS_TABLE_PANEL);
     }
 
@@ -137,6 +184,46 @@ public class MainFrame extends JFrame {
         containerCardLayout.show(containerPanel, SINGLE_ORDER_PANEL);
     }
 
+    private class LoadingWorker extends SwingWorker<GlobalData, Void> {
+        @Override
+        protected GlobalData doInBackground() {
+            return new GlobalData(StorageOptions.fromSystemProperties());
+        }
+
+        @Override
+        protected void done() {
+            try {
+                globalData = get();
+            } catch (InterruptedException | ExecutionException e) {
+                System.err.println(e.toString());
+
+                JOptionPane.showMessageDialog(
+                        null,
+                        "Error while loading the data",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE
+                );
+
+                closeFrame();
+
+                return;
+            }
+
+            Runtime.getRuntime().addShutdownHook(new Thread(globalData::close));
+
+            prepareGUI();
+        }
+    }
+
+    // Nothing has been shown yet, so cancelling the loading closes the
+    // application.
+    private class CancelLoadingListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            closeFrame();
+        }
+    }
+
     private class MenuClickListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
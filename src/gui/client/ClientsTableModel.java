@@ -0,0 +1,49 @@
+package gui.client;
+
+import data.DataSnapshot;
+import gui.common.DataTableModel;
+import model.Client;
+
+public class ClientsTableModel extends DataTableModel<Client> {
+    private final String[] columnNames = {
+            "First Name",
+            "Last Name",
+            "Company Name",
+            "TIN"
+    };
+
+    public ClientsTableModel() {
+        super(DataSnapshot::clients);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    @Override
+    protected Object getValueAt(Client client, int columnIndex) {
+        switch (columnIndex) {
+            case 0:
+                return client.firstName();
+            case 1:
+                return client.lastName();
+            case 2:
+                return client.companyName();
+            case 3:
+                return client.tin();
+            default:
+                return null;
+        }
+    }
+}
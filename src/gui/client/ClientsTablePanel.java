@@ -2,35 +2,30 @@ package gui.client;
 
 import data.GlobalData;
 import gui.MainFrame;
-import model.Client;
+import gui.common.TaskStatusBar;
+import layout.SpringUtilities;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
 import java.util.UUID;
 
 public class ClientsTablePanel extends JPanel {
     private final String ADD_CONTROL = "add";
     private final String SHOW_CONTROL = "show";
     private final String DELETE_CONTROL = "delete";
+    private final String SEARCH = "search";
+    private final String SHOW_ALL = "showAll";
 
     private final MainFrame mainFrame;
     private final GlobalData globalData;
 
-    private List<Client> clients;
-
-    String[] columnNames = {
-            "First Name",
-            "Last Name",
-            "Company Name",
-            "TIN"
-    };
-
-    private DefaultTableModel clientsDefaultTableModel;
+    JTextField searchInput;
+    private ClientsTableModel clientsTableModel;
     private JTable clientsTable;
+    private TaskStatusBar taskStatusBar;
 
     public ClientsTablePanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -44,21 +39,62 @@ public class ClientsTablePanel extends JPanel {
         setLayout(new BorderLayout());
 
         JPanel headerPanel = new JPanel();
-        headerPanel.setLayout(new FlowLayout());
+        headerPanel.setLayout(new BorderLayout());
+
+        JPanel labelPanel = new JPanel();
+        labelPanel.setLayout(new FlowLayout());
+
+        JPanel searchPanel = new JPanel();
+        searchPanel.setLayout(new SpringLayout());
+
+        searchInput = new JTextField();
+        searchInput.setActionCommand(SEARCH);
+        searchInput.addActionListener(new FilterListener());
+
+        JButton searchButton = new JButton("Search");
+        searchButton.setActionCommand(SEARCH);
+        searchButton.addActionListener(new FilterListener());
 
         JLabel headerLabel = new JLabel(
                 "Clients",
                 JLabel.CENTER);
 
-        headerPanel.add(headerLabel);
+        labelPanel.add(headerLabel);
+
+        searchPanel.add(searchInput);
+        searchPanel.add(searchButton);
+
+        SpringUtilities.makeGrid(
+                searchPanel,
+                1, 2,
+                6, 6,
+                6, 6
+        );
+
+        JPanel showAllPanel = new JPanel();
+        showAllPanel.setLayout(new FlowLayout());
+
+        JButton showAllButton = new JButton("Show All");
+        showAllButton.setActionCommand(SHOW_ALL);
+        showAllButton.addActionListener(new FilterListener());
+
+        showAllPanel.add(showAllButton);
+
+        headerPanel.add(labelPanel, BorderLayout.PAGE_START);
+        headerPanel.add(searchPanel, BorderLayout.CENTER);
+        headerPanel.add(showAllPanel, BorderLayout.PAGE_END);
+
+        clientsTableModel = new ClientsTableModel();
+        globalData.addClientsListener(clientsTableModel);
+
+        TableRowSorter<ClientsTableModel> clientsTableRowSorter = new TableRowSorter<>(clientsTableModel);
 
-        clientsDefaultTableModel = new DefaultTableModel(columnNames, 0);
-        clientsTable = new JTable(clientsDefaultTableModel) {
-            @Override
-            public boolean editCellAt(int row, int column, java.util.EventObject e) {
-                return false;
-            };
-        };
+        for (int column = 0; column < clientsTableModel.getColumnCount(); column++) {
+            clientsTableRowSorter.setComparator(column, String.CASE_INSENSITIVE_ORDER);
+        }
+
+        clientsTable = new JTable(clientsTableModel);
+        clientsTable.setRowSorter(clientsTableRowSorter);
         JScrollPane clientsTableScrollPane = new JScrollPane(clientsTable);
 
         JPanel controlPanel = new JPanel();
@@ -81,28 +117,15 @@ public class ClientsTablePanel extends JPanel {
         controlPanel.add(showButton);
         controlPanel.add(deleteButton);
 
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
+
         add(headerPanel, BorderLayout.PAGE_START);
         add(clientsTableScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
     }
 
-    private void populateClientsToTable() {
-        clientsDefaultTableModel.setRowCount(0);
-
-        clients = globalData.getClients();
-
-        for (Client client : clients) {
-            Object[] rowData = new Object[4];
-
-            rowData[0] = client.firstName();
-            rowData[1] = client.lastName();
-            rowData[2] = client.companyName();
-            rowData[3] = client.tin();
-
-            clientsDefaultTableModel.addRow(rowData);
-        }
-    }
-
     private void showWarningMessageDialog(String message) {
         JOptionPane.showMessageDialog(
                 null,
@@ -125,7 +148,9 @@ public class ClientsTablePanel extends JPanel {
             return;
         }
 
-        mainFrame.openShowSingleClientPanel(clients.get(index));
+        mainFrame.openShowSingleClientPanel(
+                clientsTableModel.getRowAt(clientsTable.convertRowIndexToModel(index))
+        );
     }
 
     private void removeClient() {
@@ -137,7 +162,7 @@ public class ClientsTablePanel extends JPanel {
             return;
         }
 
-        UUID id = clients.get(index).id();
+        UUID id = clientsTableModel.getRowAt(clientsTable.convertRowIndexToModel(index)).id();
 
         if(globalData.checkIfClientIsUsed(id)) {
             showWarningMessageDialog(
@@ -164,13 +189,45 @@ public class ClientsTablePanel extends JPanel {
             return;
         }
 
-        globalData.deleteClient(id);
+        taskStatusBar.runToCompletion("Deleting Client...", () -> {
+            globalData.deleteClient(id);
 
-        reloadPanel();
+            return null;
+        }, result -> {});
     }
 
-    public void reloadPanel() {
-        populateClientsToTable();
+    // Search results do not follow additions, so the new row is only
+    // missing while one is shown.
+    public void showAllIfFiltered() {
+        if(!clientsTableModel.isShowingAll()) {
+            reloadPanel();
+        }
+    }
+
+    private void reloadPanel() {
+        clearFilters();
+
+        getAndShowAllClients();
+    }
+
+    private void getAndShowAllClients() {
+        taskStatusBar.run(
+                "Loading Clients...",
+                globalData::getSnapshot,
+                clientsTableModel::showAll
+        );
+    }
+
+    private void getAndShowClientsSearch(String query) {
+        taskStatusBar.run(
+                "Searching Clients...",
+                () -> globalData.searchClients(query),
+                clientsTableModel::showRows
+        );
+    }
+
+    private void clearFilters() {
+        searchInput.setText("");
     }
 
     private class ButtonClickListener implements ActionListener {
@@ -194,4 +251,32 @@ public class ClientsTablePanel extends JPanel {
             }
         }
     }
+
+    private class FilterListener implements ActionListener {
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            String command = e.getActionCommand();
+
+            switch (command) {
+                case SEARCH:
+                    String query = searchInput.getText();
+
+                    if(query.isBlank()) {
+                        getAndShowAllClients();
+
+                        return;
+                    }
+
+                    getAndShowClientsSearch(query);
+
+                    break;
+                case SHOW_ALL:
+                    clearFilters();
+                    getAndShowAllClients();
+
+                    break;
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package gui.client;
 import data.GlobalData;
 import gui.MainFrame;
 import gui.common.AddressFormPanel;
+import gui.common.TaskStatusBar;
 import layout.SpringUtilities;
 import model.Address;
 import model.Client;
@@ -27,6 +28,7 @@ public class SingleClientPanel extends JPanel {
     private AddressFormPanel addressFormPanel;
     private AddressFormPanel deliveryAddressFormPanel;
     private JButton submitButton;
+    private TaskStatusBar taskStatusBar;
 
     public SingleClientPanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -128,6 +130,10 @@ public class SingleClientPanel extends JPanel {
         controlPanel.add(submitButton);
         controlPanel.add(backButton);
 
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
+
         add(headerPanel, BorderLayout.PAGE_START);
         add(formScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
@@ -171,16 +177,22 @@ public class SingleClientPanel extends JPanel {
                     deliveryAddress
             );
 
-            globalData.addClient(newClient);
+            setButtonsEnabled(false);
 
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Client has been added",
-                    "Info",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
+            taskStatusBar.runToCompletion("Saving Client...", () -> {
+                globalData.addClient(newClient);
+
+                return null;
+            }, result -> {
+                JOptionPane.showMessageDialog(
+                        null,
+                        "Client has been added",
+                        "Info",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
 
-            mainFrame.openClientsTablePanel();
+                mainFrame.openClientsTablePanelAfterAdd();
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(
                     null,
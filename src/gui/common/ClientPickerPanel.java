@@ -0,0 +1,167 @@
+package gui.common;
+
+import data.GlobalData;
+import layout.SpringUtilities;
+import model.Client;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.ItemListener;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+// Client combo box filled from what is typed into the search field next to
+// it, so only a page of matching Clients is ever loaded into the model. The
+// search runs off the event dispatch thread; a keystroke drops the results
+// of the search it overtook.
+public class ClientPickerPanel extends JPanel {
+    private final int OPTIONS_LIMIT = 100;
+
+    private final GlobalData globalData;
+
+    private JTextField searchInput;
+    private JComboBox<Client> clientComboBox;
+    private OptionsWorker optionsWorker;
+
+    public ClientPickerPanel(GlobalData globalData) {
+        this.globalData = globalData;
+
+        prepareGUI();
+        reloadOptions();
+    }
+
+    private void prepareGUI() {
+        setLayout(new SpringLayout());
+
+        searchInput = new JTextField();
+        searchInput.setToolTipText("Search Clients");
+        searchInput.getDocument().addDocumentListener(new SearchListener());
+
+        clientComboBox = new JComboBox<Client>();
+
+        add(searchInput);
+        add(clientComboBox);
+
+        SpringUtilities.makeGrid(
+                this,
+                1, 2,
+                0, 0,
+                6, 6
+        );
+    }
+
+    public void reloadOptions() {
+        if(searchInput.getText().isEmpty()) {
+            loadOptions();
+        } else {
+            searchInput.setText("");
+        }
+    }
+
+    public Client getSelectedClient() {
+        return (Client) clientComboBox.getSelectedItem();
+    }
+
+    // The Client may be outside of the current page of options.
+    public void setSelectedClient(Client client) {
+        cancelOptionsWorker();
+
+        DefaultComboBoxModel<Client> model = (DefaultComboBoxModel<Client>) clientComboBox.getModel();
+
+        if(client != null && model.getIndexOf(client) < 0) {
+            model.insertElementAt(client, 0);
+        }
+
+        clientComboBox.setSelectedItem(client);
+    }
+
+    public void addItemListener(ItemListener listener) {
+        clientComboBox.addItemListener(listener);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+
+        searchInput.setEnabled(enabled);
+        clientComboBox.setEnabled(enabled);
+    }
+
+    private void loadOptions() {
+        cancelOptionsWorker();
+
+        optionsWorker = new OptionsWorker(searchInput.getText());
+        optionsWorker.execute();
+    }
+
+    private void cancelOptionsWorker() {
+        if(optionsWorker != null) {
+            optionsWorker.cancel(false);
+            optionsWorker = null;
+        }
+    }
+
+    private void showOptions(List<Client> clientOptions) {
+        DefaultComboBoxModel<Client> model = new DefaultComboBoxModel<Client>(
+                clientOptions.toArray(new Client[0])
+        );
+
+        // Replacing the model fires no item events, so the old selection is
+        // cleared and the first match selected through the combo box.
+        model.setSelectedItem(null);
+        clientComboBox.setSelectedItem(null);
+        clientComboBox.setModel(model);
+
+        if(!clientOptions.isEmpty()) {
+            clientComboBox.setSelectedItem(clientOptions.get(0));
+        }
+    }
+
+    private class OptionsWorker extends SwingWorker<List<Client>, Void> {
+        private final String query;
+
+        public OptionsWorker(String query) {
+            this.query = query;
+        }
+
+        @Override
+        protected List<Client> doInBackground() {
+            return globalData.searchClients(query, OPTIONS_LIMIT);
+        }
+
+        @Override
+        protected void done() {
+            if(isCancelled()) {
+                return;
+            }
+
+            if(optionsWorker == this) {
+                optionsWorker = null;
+            }
+
+            try {
+                showOptions(get());
+            } catch (InterruptedException | ExecutionException e) {
+                System.err.println(e.toString());
+            }
+        }
+    }
+
+    private class SearchListener implements DocumentListener {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            loadOptions();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            loadOptions();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            loadOptions();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package gui.common;
+
+import data.DataListener;
+import data.DataSnapshot;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Table model over the rows of the current data snapshot. Listening to
+// GlobalData keeps it live: an added or deleted row fires an insert or
+// delete event for that row only. Filter results set with showRows do not
+// follow additions, only deletions, until the next showAll.
+public abstract class DataTableModel<T> extends AbstractTableModel implements DataListener<T> {
+    private final Function<DataSnapshot, List<T>> snapshotRows;
+
+    private List<T> rows = List.of();
+    private boolean showingAll;
+    private long version;
+
+    protected DataTableModel(Function<DataSnapshot, List<T>> snapshotRows) {
+        this.snapshotRows = snapshotRows;
+    }
+
+    protected abstract Object getValueAt(T row, int columnIndex);
+
+    // A snapshot no newer than the changes the model has already applied is
+    // ignored: it holds nothing new, and an older one would bring removed
+    // rows back.
+    public void showAll(DataSnapshot snapshot) {
+        if(showingAll && snapshot.version() <= version) {
+            return;
+        }
+
+        rows = snapshotRows.apply(snapshot);
+        showingAll = true;
+        version = snapshot.version();
+
+        fireTableDataChanged();
+    }
+
+    public void showRows(List<T> rows) {
+        this.rows = rows;
+        showingAll = false;
+
+        fireTableDataChanged();
+    }
+
+    public boolean isShowingAll() {
+        return showingAll;
+    }
+
+    public T getRowAt(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getValueAt(rows.get(rowIndex), columnIndex);
+    }
+
+    // Called on the thread that made the change.
+    @Override
+    public void added(T value, DataSnapshot snapshot) {
+        SwingUtilities.invokeLater(() -> insertRow(snapshot));
+    }
+
+    @Override
+    public void deleted(T value, DataSnapshot snapshot) {
+        SwingUtilities.invokeLater(() -> deleteRow(value, snapshot));
+    }
+
+    // Snapshots up to the shown version already contain the change.
+    private void insertRow(DataSnapshot snapshot) {
+        if(!showingAll || snapshot.version() <= version) {
+            return;
+        }
+
+        rows = snapshotRows.apply(snapshot);
+        version = snapshot.version();
+
+        fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+    }
+
+    private void deleteRow(T value, DataSnapshot snapshot) {
+        if(showingAll && snapshot.version() <= version) {
+            return;
+        }
+
+        int rowIndex = indexOf(value);
+
+        if(showingAll) {
+            rows = snapshotRows.apply(snapshot);
+            version = snapshot.version();
+        } else if(rowIndex >= 0) {
+            List<T> remainingRows = new ArrayList<>(rows);
+
+            remainingRows.remove(rowIndex);
+            rows = remainingRows;
+        }
+
+        if(rowIndex >= 0) {
+            fireTableRowsDeleted(rowIndex, rowIndex);
+        } else if(showingAll) {
+            // The rows were replaced without the deleted one ever being
+            // shown, so the sorter has to rebuild from the new rows.
+            fireTableDataChanged();
+        }
+    }
+
+    private int indexOf(T value) {
+        int rowIndex = 0;
+
+        for (T row : rows) {
+            if(row == value) {
+                return rowIndex;
+            }
+
+            rowIndex++;
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,163 @@
+package gui.common;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+// Runs GlobalData work off the event dispatch thread and shows it while it
+// runs. Starting a task drops the result of a cancellable one still running,
+// so only the latest result reaches the panel. A change to the data is never
+// dropped: tasks started while it runs wait until it has finished.
+public class TaskStatusBar extends JPanel {
+    private JLabel messageLabel;
+    private JButton cancelButton;
+
+    private TaskWorker<?> currentWorker;
+    private final Deque<Task<?>> queuedTasks;
+
+    public TaskStatusBar() {
+        this.queuedTasks = new ArrayDeque<>();
+
+        prepareGUI();
+    }
+
+    private void prepareGUI() {
+        setLayout(new FlowLayout());
+
+        messageLabel = new JLabel();
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(new CancelListener());
+
+        add(messageLabel);
+        add(progressBar);
+        add(cancelButton);
+
+        setVisible(false);
+    }
+
+    public <T> void run(String message, Callable<T> task, Consumer<T> onDone) {
+        start(new Task<T>(message, true, task, onDone, TaskStatusBar::logError));
+    }
+
+    // For changes to the data: they cannot be called off halfway, so no
+    // cancel option is shown.
+    public <T> void runToCompletion(String message, Callable<T> task, Consumer<T> onDone) {
+        runToCompletion(message, task, onDone, TaskStatusBar::logError);
+    }
+
+    // onError gets what the task threw, on the event dispatch thread.
+    public <T> void runToCompletion(
+            String message,
+            Callable<T> task,
+            Consumer<T> onDone,
+            Consumer<Throwable> onError
+    ) {
+        start(new Task<T>(message, false, task, onDone, onError));
+    }
+
+    private static void logError(Throwable error) {
+        System.err.println(error.toString());
+    }
+
+    private void start(Task<?> task) {
+        if((currentWorker != null && !currentWorker.task.cancellable()) || !queuedTasks.isEmpty()) {
+            if(task.cancellable()) {
+                queuedTasks.removeIf(Task::cancellable);
+            }
+
+            queuedTasks.add(task);
+
+            return;
+        }
+
+        if(currentWorker != null) {
+            currentWorker.cancel(false);
+        }
+
+        execute(task);
+    }
+
+    private <T> void execute(Task<T> task) {
+        currentWorker = new TaskWorker<T>(task);
+
+        messageLabel.setText(task.message());
+        cancelButton.setVisible(task.cancellable());
+        setVisible(true);
+
+        currentWorker.execute();
+    }
+
+    private void finish(TaskWorker<?> worker) {
+        if(currentWorker != worker) {
+            return;
+        }
+
+        currentWorker = null;
+
+        Task<?> nextTask = queuedTasks.poll();
+
+        if(nextTask != null) {
+            execute(nextTask);
+        } else {
+            setVisible(false);
+        }
+    }
+
+    private record Task<T>(
+            String message,
+            boolean cancellable,
+            Callable<T> work,
+            Consumer<T> onDone,
+            Consumer<Throwable> onError
+    ) {
+    }
+
+    private class TaskWorker<T> extends SwingWorker<T, Void> {
+        private final Task<T> task;
+
+        public TaskWorker(Task<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return task.work().call();
+        }
+
+        // The result is handed over before the next task starts, so a task
+        // queued behind a change sees what the change's callback did.
+        @Override
+        protected void done() {
+            if(!isCancelled()) {
+                try {
+                    task.onDone().accept(get());
+                } catch (ExecutionException e) {
+                    task.onError().accept(e.getCause());
+                } catch (InterruptedException e) {
+                    logError(e);
+                }
+            }
+
+            finish(this);
+        }
+    }
+
+    private class CancelListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if(currentWorker != null && currentWorker.task.cancellable()) {
+                currentWorker.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package gui.item;
+
+import data.DataSnapshot;
+import gui.common.DataTableModel;
+import model.Item;
+
+import java.math.BigDecimal;
+
+public class ItemsTableModel extends DataTableModel<Item> {
+    private final String[] columnNames = {
+            "Name",
+            "SKU",
+            "Unit Net Price",
+            "Unit Gross Price",
+            "Dimensions",
+            "Weight"
+    };
+
+    public ItemsTableModel() {
+        super(DataSnapshot::items);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case 2:
+            case 3:
+                return BigDecimal.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    protected Object getValueAt(Item item, int columnIndex) {
+        switch (columnIndex) {
+            case 0:
+                return item.name();
+            case 1:
+                return item.sku();
+            case 2:
+                return item.unitNetPrice();
+            case 3:
+                return item.unitGrossPrice();
+            case 4:
+                return item.dimensions();
+            case 5:
+                return item.weight();
+            default:
+                return null;
+        }
+    }
+}
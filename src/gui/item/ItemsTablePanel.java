@@ -2,15 +2,17 @@ package gui.item;
 
 import data.GlobalData;
 import gui.MainFrame;
+import gui.common.TaskStatusBar;
 import layout.SpringUtilities;
-import model.Item;
 
 import java.awt.*;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.math.BigDecimal;
+import java.util.Comparator;
 import java.util.UUID;
 
 public class ItemsTablePanel extends JPanel {
@@ -24,20 +26,10 @@ public class ItemsTablePanel extends JPanel {
     private final MainFrame mainFrame;
     private final GlobalData globalData;
 
-    private List<Item> items;
-
-    String[] columnNames = {
-            "Name",
-            "SKU",
-            "Unit Net Price",
-            "Unit Gross Price",
-            "Dimensions",
-            "Weight"
-    };
-
     JTextField filterNameInput;
-    private DefaultTableModel itemsDefaultTableModel;
+    private ItemsTableModel itemsTableModel;
     private JTable itemsTable;
+    private TaskStatusBar taskStatusBar;
 
     public ItemsTablePanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -94,13 +86,23 @@ public class ItemsTablePanel extends JPanel {
         headerPanel.add(filterPanel, BorderLayout.CENTER);
         headerPanel.add(showAllPanel, BorderLayout.PAGE_END);
 
-        itemsDefaultTableModel = new DefaultTableModel(columnNames, 0);
-        itemsTable = new JTable(itemsDefaultTableModel) {
-            @Override
-            public boolean editCellAt(int row, int column, java.util.EventObject e) {
-                return false;
-            };
-        };
+        itemsTableModel = new ItemsTableModel();
+        globalData.addItemsListener(itemsTableModel);
+
+        TableRowSorter<ItemsTableModel> itemsTableRowSorter = new TableRowSorter<>(itemsTableModel);
+
+        for (int column = 0; column < itemsTableModel.getColumnCount(); column++) {
+            if(itemsTableModel.getColumnClass(column) == BigDecimal.class) {
+                itemsTableRowSorter.setComparator(column, Comparator.<BigDecimal>naturalOrder());
+            } else {
+                itemsTableRowSorter.setComparator(column, String.CASE_INSENSITIVE_ORDER);
+            }
+        }
+
+        itemsTable = new JTable(itemsTableModel);
+        itemsTable.setRowSorter(itemsTableRowSorter);
+        // Prices are shown as saved, with both decimal places.
+        itemsTable.setDefaultRenderer(BigDecimal.class, new DefaultTableCellRenderer());
         JScrollPane itemsTableScrollPane = new JScrollPane(itemsTable);
 
         JPanel controlPanel = new JPanel();
@@ -123,28 +125,15 @@ public class ItemsTablePanel extends JPanel {
         controlPanel.add(showButton);
         controlPanel.add(deleteButton);
 
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
+
         add(headerPanel, BorderLayout.PAGE_START);
         add(itemsTableScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
     }
 
-    private void populateItemsToTable() {
-        itemsDefaultTableModel.setRowCount(0);
-
-        for (Item item : items) {
-            Object[] rowData = new Object[6];
-
-            rowData[0] = item.name();
-            rowData[1] = item.sku();
-            rowData[2] = item.unitNetPrice();
-            rowData[3] = item.unitGrossPrice();
-            rowData[4] = item.dimensions();
-            rowData[5] = item.weight();
-
-            itemsDefaultTableModel.addRow(rowData);
-        }
-    }
-
     private void showWarningMessageDialog(String message) {
         JOptionPane.showMessageDialog(
                 null,
@@ -167,7 +156,9 @@ public class ItemsTablePanel extends JPanel {
             return;
         }
 
-        mainFrame.openShowSingleItemPanel(items.get(index));
+        mainFrame.openShowSingleItemPanel(
+                itemsTableModel.getRowAt(itemsTable.convertRowIndexToModel(index))
+        );
     }
 
     private void removeItem() {
@@ -179,7 +170,7 @@ public class ItemsTablePanel extends JPanel {
             return;
         }
 
-        UUID id = items.get(index).id();
+        UUID id = itemsTableModel.getRowAt(itemsTable.convertRowIndexToModel(index)).id();
 
         if(globalData.checkIfItemIsUsed(id)) {
             showWarningMessageDialog(
@@ -206,27 +197,41 @@ public class ItemsTablePanel extends JPanel {
             return;
         }
 
-        globalData.deleteItem(id);
+        taskStatusBar.runToCompletion("Deleting Item...", () -> {
+            globalData.deleteItem(id);
 
-        reloadPanel();
+            return null;
+        }, result -> {});
+    }
+
+    // Search results do not follow additions, so the new row is only
+    // missing while one is shown.
+    public void showAllIfFiltered() {
+        if(!itemsTableModel.isShowingAll()) {
+            reloadPanel();
+        }
     }
 
-    public void reloadPanel() {
+    private void reloadPanel() {
         clearFilters();
 
         getAndShowAllItems();
     }
 
     private void getAndShowAllItems() {
-        items = globalData.getItems();
-
-        populateItemsToTable();
+        taskStatusBar.run(
+                "Loading Items...",
+                globalData::getSnapshot,
+                itemsTableModel::showAll
+        );
     }
 
     private void getAndShowItemsFilterName(String name) {
-        items = globalData.getItemsFilterName(name);
-
-        populateItemsToTable();
+        taskStatusBar.run(
+                "Filtering Items...",
+                () -> globalData.getItemsFilterName(name),
+                itemsTableModel::showRows
+        );
     }
 
     private void clearFilters() {
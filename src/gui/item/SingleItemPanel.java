@@ -2,6 +2,7 @@ package gui.item;
 
 import data.GlobalData;
 import gui.MainFrame;
+import gui.common.TaskStatusBar;
 import layout.SpringUtilities;
 import model.Item;
 
@@ -32,6 +33,7 @@ public class SingleItemPanel extends JPanel {
     private JTextField dimensionsTextField;
     private JTextField weightTextField;
     private JButton submitButton;
+    private TaskStatusBar taskStatusBar;
 
     public SingleItemPanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -141,6 +143,10 @@ public class SingleItemPanel extends JPanel {
         controlPanel.add(submitButton);
         controlPanel.add(backButton);
 
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
+
         add(headerPanel, BorderLayout.PAGE_START);
         add(formScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
@@ -202,16 +208,22 @@ public class SingleItemPanel extends JPanel {
                     weight
             );
 
-            globalData.addItem(newItem);
+            setButtonsEnabled(false);
 
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Item has been added",
-                    "Info",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
+            taskStatusBar.runToCompletion("Saving Item...", () -> {
+                globalData.addItem(newItem);
+
+                return null;
+            }, result -> {
+                JOptionPane.showMessageDialog(
+                        null,
+                        "Item has been added",
+                        "Info",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
 
-            mainFrame.openItemsTablePanel();
+                mainFrame.openItemsTablePanelAfterAdd();
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(
                     null,
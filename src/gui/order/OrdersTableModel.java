@@ -0,0 +1,75 @@
+package gui.order;
+
+import model.Order;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+// Reads the cells straight from the list of Orders, so only the rows that
+// are painted get formatted.
+public class OrdersTableModel extends AbstractTableModel {
+    private final String[] columnNames = {
+            "Ordered At",
+            "Client's First Name",
+            "Client's Last Name",
+            "Client's Company Name",
+            "Client's TIN",
+            "Net Total",
+            "Gross Total"
+    };
+
+    private final DateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy, HH:mm");
+
+    private List<Order> orders = List.of();
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+
+        fireTableDataChanged();
+    }
+
+    public Order getOrderAt(int rowIndex) {
+        return orders.get(rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return orders.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Order order = orders.get(rowIndex);
+
+        switch (columnIndex) {
+            case 0:
+                return dateFormat.format(order.orderedAt());
+            case 1:
+                return order.client().firstName();
+            case 2:
+                return order.client().lastName();
+            case 3:
+                return order.client().companyName();
+            case 4:
+                return order.client().tin();
+            case 5:
+                return order.netTotal();
+            case 6:
+                return order.grossTotal();
+            default:
+                return null;
+        }
+    }
+}
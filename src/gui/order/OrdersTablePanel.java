@@ -2,29 +2,31 @@ package gui.order;
 
 import data.GlobalData;
 import gui.MainFrame;
+import gui.common.ClientPickerPanel;
+import gui.common.TaskStatusBar;
 import layout.SpringUtilities;
 import model.Client;
 import model.Order;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.text.DefaultFormatter;
 import javax.swing.text.DefaultFormatterFactory;
 import javax.swing.text.NumberFormatter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.math.BigDecimal;
-import java.text.DateFormat;
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 public class OrdersTablePanel extends JPanel {
     private final String ADD_CONTROL = "add";
     private final String SHOW_CONTROL = "show";
     private final String DELETE_CONTROL = "delete";
+    private final String EXPORT_CONTROL = "export";
     private final String FILTER_ORDERED_AT = "filterOrderedAt";
     private final String FILTER_GROSS_TOTAL = "filterGrossTotal";
     private final String FILTER_CLIENT = "filterClient";
@@ -33,25 +35,15 @@ public class OrdersTablePanel extends JPanel {
     private final MainFrame mainFrame;
     private final GlobalData globalData;
 
-    private List<Order> orders;
     JSpinner filterDateFromInput;
     JSpinner filterDateToInput;
     JFormattedTextField grossTotalFromInput;
     JFormattedTextField grossTotalToInput;
-    private JComboBox<Client> clientComboBox;
-
-    String[] columnNames = {
-            "Ordered At",
-            "Client's First Name",
-            "Client's Last Name",
-            "Client's Company Name",
-            "Client's TIN",
-            "Net Total",
-            "Gross Total"
-    };
-
-    private DefaultTableModel ordersDefaultTableModel;
+    private ClientPickerPanel clientPickerPanel;
+
+    private OrdersTableModel ordersTableModel;
     private JTable ordersTable;
+    private TaskStatusBar taskStatusBar;
 
     public OrdersTablePanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -141,13 +133,13 @@ public class OrdersTablePanel extends JPanel {
         JPanel clientFilterPanel = new JPanel();
         clientFilterPanel.setLayout(new SpringLayout());
 
-        clientComboBox = new JComboBox<Client>();
+        clientPickerPanel = new ClientPickerPanel(globalData);
 
         JButton filterClientButton = new JButton("Filter by selected Client");
         filterClientButton.setActionCommand(FILTER_CLIENT);
         filterClientButton.addActionListener(new FilterListener());
 
-        clientFilterPanel.add(clientComboBox);
+        clientFilterPanel.add(clientPickerPanel);
         clientFilterPanel.add(filterClientButton);
 
         SpringUtilities.makeGrid(
@@ -183,13 +175,8 @@ public class OrdersTablePanel extends JPanel {
         headerPanel.add(filtersPanel, BorderLayout.CENTER);
         headerPanel.add(showAllPanel, BorderLayout.PAGE_END);
 
-        ordersDefaultTableModel = new DefaultTableModel(columnNames, 0);
-        ordersTable = new JTable(ordersDefaultTableModel) {
-            @Override
-            public boolean editCellAt(int row, int column, java.util.EventObject e) {
-                return false;
-            };
-        };
+        ordersTableModel = new OrdersTableModel();
+        ordersTable = new JTable(ordersTableModel);
         JScrollPane ordersTableScrollPane = new JScrollPane(ordersTable);
 
         JPanel controlPanel = new JPanel();
@@ -205,38 +192,27 @@ public class OrdersTablePanel extends JPanel {
         JButton deleteButton = new JButton("Delete");
         deleteButton.setActionCommand(DELETE_CONTROL);
 
+        JButton exportButton = new JButton("Export to TXT");
+        exportButton.setActionCommand(EXPORT_CONTROL);
+
         showButton.addActionListener(new ButtonClickListener());
         deleteButton.addActionListener(new ButtonClickListener());
+        exportButton.addActionListener(new ButtonClickListener());
 
         controlPanel.add(addButton);
         controlPanel.add(showButton);
         controlPanel.add(deleteButton);
+        controlPanel.add(exportButton);
+
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
 
         add(headerPanel, BorderLayout.PAGE_START);
         add(ordersTableScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
     }
 
-    private void populateOrdersToTable() {
-        DateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy, HH:mm");
-
-        ordersDefaultTableModel.setRowCount(0);
-
-        for (Order order : orders) {
-            Object[] rowData = new Object[7];
-
-            rowData[0] = dateFormat.format((order.orderedAt()));
-            rowData[1] = order.client().firstName();
-            rowData[2] = order.client().lastName();
-            rowData[3] = order.client().companyName();
-            rowData[4] = order.client().tin();
-            rowData[5] = order.netTotal();
-            rowData[6] = order.grossTotal();
-
-            ordersDefaultTableModel.addRow(rowData);
-        }
-    }
-
     private void showSelectOrderMessageDialog() {
         JOptionPane.showMessageDialog(
                 null,
@@ -259,7 +235,7 @@ public class OrdersTablePanel extends JPanel {
             return;
         }
 
-        mainFrame.openShowSingleOrderPanel(orders.get(index));
+        mainFrame.openShowSingleOrderPanel(ordersTableModel.getOrderAt(index));
     }
 
     private void removeOrder() {
@@ -287,9 +263,45 @@ public class OrdersTablePanel extends JPanel {
             return;
         }
 
-        globalData.deleteOrder(orders.get(index).id());
+        UUID id = ordersTableModel.getOrderAt(index).id();
 
-        reloadPanel();
+        taskStatusBar.runToCompletion("Deleting Order...", () -> {
+            globalData.deleteOrder(id);
+
+            return null;
+        }, result -> reloadPanel());
+    }
+
+    // Writes orders.txt and orderItems.txt into the chosen directory, in the
+    // format the application reads, whatever the storage format is.
+    private void exportOrders() {
+        JFileChooser directoryChooser = new JFileChooser();
+        directoryChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+        if(directoryChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File directory = directoryChooser.getSelectedFile();
+
+        taskStatusBar.runToCompletion("Exporting Orders...", () -> {
+            globalData.exportOrdersToTextFiles(
+                    new File(directory, "orders.txt"),
+                    new File(directory, "orderItems.txt")
+            );
+
+            return null;
+        }, result -> JOptionPane.showMessageDialog(
+                null,
+                "Orders have been exported",
+                "Info",
+                JOptionPane.INFORMATION_MESSAGE
+        ), error -> JOptionPane.showMessageDialog(
+                null,
+                "Error while exporting the Orders",
+                "Error",
+                JOptionPane.ERROR_MESSAGE
+        ));
     }
 
     public void reloadPanel() {
@@ -297,38 +309,40 @@ public class OrdersTablePanel extends JPanel {
         resetFilters();
     }
 
-    private void reloadClientsOptions() {
-        List<Client> clientOptions = globalData.getClients();
-
-        clientComboBox.setModel(
-                new DefaultComboBoxModel<Client>(
-                        clientOptions.toArray(new Client[0])
-                )
-        );
-    }
-
     private void getAndShowAllOrders() {
-        orders = globalData.getOrders();
-
-        populateOrdersToTable();
+        taskStatusBar.run(
+                "Loading Orders...",
+                globalData::getOrders,
+                this::showOrders
+        );
     }
 
     private void getAndShowOrdersFilterOrderedAtRange(Date from, Date to) {
-        orders = globalData.getOrdersFilterOrderedAtRange(from, to);
-
-        populateOrdersToTable();
+        taskStatusBar.run(
+                "Filtering Orders...",
+                () -> globalData.getOrdersFilterOrderedAtRange(from, to),
+                this::showOrders
+        );
     }
 
     private void getAndShowOrdersFilterGrossTotalRange(BigDecimal from, BigDecimal to) {
-        orders = globalData.getOrdersFilterGrossTotalRang(from, to);
-
-        populateOrdersToTable();
+        taskStatusBar.run(
+                "Filtering Orders...",
+                () -> globalData.getOrdersFilterGrossTotalRang(from, to),
+                this::showOrders
+        );
     }
 
     private void getAndShowOrdersFilterClient(Client client) {
-        orders = globalData.getOrdersFilterClient(client);
+        taskStatusBar.run(
+                "Filtering Orders...",
+                () -> globalData.getOrdersFilterClient(client),
+                this::showOrders
+        );
+    }
 
-        populateOrdersToTable();
+    private void showOrders(List<Order> orders) {
+        ordersTableModel.setOrders(orders);
     }
 
     private void resetFilters() {
@@ -338,7 +352,7 @@ public class OrdersTablePanel extends JPanel {
         grossTotalFromInput.setValue(new BigDecimal("0.00"));
         grossTotalToInput.setValue(new BigDecimal("0.00"));
 
-        reloadClientsOptions();
+        clientPickerPanel.reloadOptions();
     }
 
     private class ButtonClickListener implements ActionListener {
@@ -358,6 +372,10 @@ public class OrdersTablePanel extends JPanel {
                 case DELETE_CONTROL:
                     removeOrder();
 
+                    break;
+                case EXPORT_CONTROL:
+                    exportOrders();
+
                     break;
             }
         }
@@ -385,7 +403,7 @@ public class OrdersTablePanel extends JPanel {
 
                     break;
                 case FILTER_CLIENT:
-                    Client selectedClient = (Client) clientComboBox.getSelectedItem();
+                    Client selectedClient = clientPickerPanel.getSelectedClient();
 
                     if(selectedClient == null) {
                         getAndShowAllOrders();
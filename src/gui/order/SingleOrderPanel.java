@@ -2,6 +2,8 @@ package gui.order;
 
 import data.GlobalData;
 import gui.MainFrame;
+import gui.common.ClientPickerPanel;
+import gui.common.TaskStatusBar;
 import layout.SpringUtilities;
 import model.Address;
 import model.Client;
@@ -36,9 +38,10 @@ public class SingleOrderPanel extends JPanel {
     private OrderItemsFormPanel orderItemsFormPanel;
     JFormattedTextField netTotalField;
     JFormattedTextField grossTotalField;
-    private JComboBox<Client> clientComboBox;
+    private ClientPickerPanel clientPickerPanel;
     private JComboBox<Address> addressPresetComboBox;
     private JButton submitButton;
+    private TaskStatusBar taskStatusBar;
 
     public SingleOrderPanel(MainFrame mainFrame, GlobalData globalData) {
         this.mainFrame = mainFrame;
@@ -118,11 +121,10 @@ public class SingleOrderPanel extends JPanel {
         );
 
         JLabel clientLabel = new JLabel("Client");
-        clientLabel.setLabelFor(clientComboBox);
+        clientLabel.setLabelFor(clientPickerPanel);
 
-        clientComboBox = new JComboBox<Client>();
-        reloadClientsOptions();
-        clientComboBox.addItemListener(new ClientOptionsActionListener());
+        clientPickerPanel = new ClientPickerPanel(globalData);
+        clientPickerPanel.addItemListener(new ClientOptionsActionListener());
 
         JLabel addressPresetLabel = new JLabel("Address (1. Address, 2. Delivery Address if valid)");
         addressPresetComboBox = new JComboBox<Address>();
@@ -134,7 +136,7 @@ public class SingleOrderPanel extends JPanel {
         formPanel.add(orderItemsFormPanel);
         formPanel.add(totalPricePanel);
         formPanel.add(clientLabel);
-        formPanel.add(clientComboBox);
+        formPanel.add(clientPickerPanel);
         formPanel.add(addressPresetLabel);
         formPanel.add(addressPresetComboBox);
 
@@ -165,6 +167,10 @@ public class SingleOrderPanel extends JPanel {
         controlPanel.add(submitButton);
         controlPanel.add(backButton);
 
+        taskStatusBar = new TaskStatusBar();
+
+        controlPanel.add(taskStatusBar);
+
         add(headerPanel, BorderLayout.PAGE_START);
         add(formScrollPane, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.PAGE_END);
@@ -185,7 +191,7 @@ public class SingleOrderPanel extends JPanel {
             List<OrderItem> orderItems = orderItemsFormPanel.getOrderItems();
             BigDecimal netTotal = orderItemsFormPanel.getNetTotal();
             BigDecimal grossTotal = orderItemsFormPanel.getGrossTotal();
-            Client client = (Client) clientComboBox.getSelectedItem();
+            Client client = clientPickerPanel.getSelectedClient();
             Address deliveryAddress = (Address) addressPresetComboBox.getSelectedItem();
 
             if(!orderItemsFormPanel.areOrderItemsValid()) {
@@ -215,16 +221,22 @@ public class SingleOrderPanel extends JPanel {
                     deliveryAddress
             );
 
-            globalData.addOrder(order);
+            setButtonsEnabled(false);
 
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Order has been added",
-                    "Info",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
+            taskStatusBar.runToCompletion("Saving Order...", () -> {
+                globalData.addOrder(order);
 
-            mainFrame.openOrdersTablePanel();
+                return null;
+            }, result -> {
+                JOptionPane.showMessageDialog(
+                        null,
+                        "Order has been added",
+                        "Info",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
+
+                mainFrame.openOrdersTablePanel();
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(
                     null,
@@ -243,7 +255,7 @@ public class SingleOrderPanel extends JPanel {
         netTotalField.setValue(new BigDecimal("0.00"));
         grossTotalField.setValue(new BigDecimal("0.00"));
 
-        reloadClientsOptions();
+        clientPickerPanel.reloadOptions();
         reloadAddressOptions();
     }
 
@@ -255,7 +267,7 @@ public class SingleOrderPanel extends JPanel {
         netTotalField.setValue(order.netTotal());
         grossTotalField.setValue(order.grossTotal());
 
-        clientComboBox.setSelectedItem(order.client());
+        clientPickerPanel.setSelectedClient(order.client());
         addressPresetComboBox.setSelectedItem(order.deliveryAddress());
     }
 
@@ -264,7 +276,7 @@ public class SingleOrderPanel extends JPanel {
 
         orderItemsFormPanel.setFieldsEditable(mode);
 
-        clientComboBox.setEnabled(mode);
+        clientPickerPanel.setEnabled(mode);
         addressPresetComboBox.setEnabled(mode);
     }
 
@@ -275,7 +287,7 @@ public class SingleOrderPanel extends JPanel {
     private void reloadAddressOptions() {
         addressList.clear();
 
-        Client selectedClient = (Client) clientComboBox.getSelectedItem();
+        Client selectedClient = clientPickerPanel.getSelectedClient();
 
         if(selectedClient != null) {
             addressList.add(selectedClient.address());
@@ -292,16 +304,6 @@ public class SingleOrderPanel extends JPanel {
         );
     }
 
-    private void reloadClientsOptions() {
-        List<Client> clientOptions = globalData.getClients();
-
-        clientComboBox.setModel(
-                new DefaultComboBoxModel<Client>(
-                        clientOptions.toArray(new Client[0])
-                )
-        );
-    }
-
     public void runAddOrderMode() {
         headerLabel.setText("Add Order");
 